@@ -0,0 +1,41 @@
+package com.customerdashboard.backend;
+
+/**
+ * BloomFilter answers "definitely not added" or "possibly added" for 128-bit keys
+ * Sized from the expected number of keys and the target false-positive rate;
+ * bit positions come from double hashing the two halves of the key
+ */
+public class BloomFilter {
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        long n = Math.max(1, expectedKeys);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64)];
+        bitCount = (long) bits.length * 64;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void add(long high, long low) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(high, low, i);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(long high, long low) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(high, low, i);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(long high, long low, int i) {
+        return Math.floorMod(high + i * low, bitCount);
+    }
+}
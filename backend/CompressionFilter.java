@@ -0,0 +1,517 @@
+package com.customerdashboard.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Compression Filter to gzip API responses for clients that accept it
+ * Output is buffered up to a size threshold; larger responses of a compressible
+ * type are gzipped as they stream, and smaller ones are sent as-is
+ */
+public class CompressionFilter implements Filter {
+    // Appended inside the quotes of an ETag when the body is gzipped, and stripped from If-None-Match
+    private static final String ETAG_SUFFIX = "--gzip";
+
+    private static final AtomicLong compressedResponses = new AtomicLong();
+    private static final AtomicLong bytesBeforeCompression = new AtomicLong();
+    private static final AtomicLong bytesAfterCompression = new AtomicLong();
+
+    private int minCompressSize = 1024;
+    private List<String> compressibleTypes = Arrays.asList(
+        "application/json", "text/plain", "text/html", "text/css", "application/javascript");
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        String minSize = filterConfig.getInitParameter("minCompressSize");
+        if (minSize != null) {
+            minCompressSize = Integer.parseInt(minSize.trim());
+        }
+        String types = filterConfig.getInitParameter("compressibleTypes");
+        if (types != null) {
+            compressibleTypes = new ArrayList<>();
+            for (String type : types.split(",")) {
+                compressibleTypes.add(type.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        // Responses differ by Accept-Encoding whether or not this one ends up compressed
+        httpResponse.addHeader("Vary", "Accept-Encoding");
+
+        if ("HEAD".equalsIgnoreCase(httpRequest.getMethod()) || !acceptsGzip(httpRequest.getHeader("Accept-Encoding"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressingResponse = new CompressingResponse(httpResponse, httpRequest.getHeader("If-None-Match"));
+        chain.doFilter(new EtagRequest(httpRequest), compressingResponse);
+        // Async responses (event streams) stay open after the chain returns and are completed later
+        if (!request.isAsyncStarted()) {
+            compressingResponse.finish();
+        }
+    }
+
+    /**
+     * Helper method to check an Accept-Encoding header for gzip (or *) with a non-zero q value
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) continue;
+
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            return q > 0;
+        }
+        return false;
+    }
+
+    /**
+     * ETag of the gzipped representation: the suffix goes inside the closing quote
+     */
+    private static String gzipEtag(String etag) {
+        return etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + ETAG_SUFFIX + "\"" : etag;
+    }
+
+    public static long getCompressedResponses() {
+        return compressedResponses.get();
+    }
+
+    public static long getBytesBeforeCompression() {
+        return bytesBeforeCompression.get();
+    }
+
+    public static long getBytesAfterCompression() {
+        return bytesAfterCompression.get();
+    }
+
+    public static long getBytesSaved() {
+        return bytesBeforeCompression.get() - bytesAfterCompression.get();
+    }
+
+    @Override
+    public void destroy() {
+        System.out.println("Compression filter: " + compressedResponses.get() + " responses compressed, "
+            + getBytesSaved() + " of " + bytesBeforeCompression.get() + " bytes saved");
+    }
+
+    /**
+     * Request view that strips the gzip suffix from If-None-Match so the servlet sees its own ETags
+     */
+    private static class EtagRequest extends HttpServletRequestWrapper {
+        EtagRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            if (value != null && "If-None-Match".equalsIgnoreCase(name)) {
+                return value.replace(ETAG_SUFFIX + "\"", "\"");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Response wrapper that decides on compression once the threshold is reached or the body ends
+     */
+    private class CompressingResponse extends HttpServletResponseWrapper {
+        private final HttpServletResponse response;
+        private final String ifNoneMatch;
+        private CompressingStream stream;
+        private PrintWriter writer;
+        private long contentLength = -1;
+        private String etag;
+
+        CompressingResponse(HttpServletResponse response, String ifNoneMatch) {
+            super(response);
+            this.response = response;
+            this.ifNoneMatch = ifNoneMatch;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                stream = new CompressingStream(this);
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                stream = new CompressingStream(this);
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            // Only meaningful if the body is sent uncompressed
+            if (stream != null && stream.decided && !stream.compressing) {
+                response.setContentLengthLong(length);
+            } else {
+                contentLength = length;
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (interceptHeader(name, value)) return;
+            super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (interceptHeader(name, value)) return;
+            super.addHeader(name, value);
+        }
+
+        private boolean interceptHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+                return true;
+            }
+            if ("ETag".equalsIgnoreCase(name) && (stream == null || !stream.decided)) {
+                etag = value;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (stream != null) {
+                stream.flush();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            // Throws IllegalStateException once the response is committed
+            super.resetBuffer();
+            if (stream != null) {
+                stream.discard(writer, false);
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            contentLength = -1;
+            etag = null;
+            if (stream != null) {
+                // reset() cleared Content-Encoding and ETag, so the encoding is chosen again
+                stream.discard(writer, true);
+            }
+        }
+
+        /**
+         * Decide whether to compress once the body size is known to be over or under the threshold
+         */
+        boolean shouldCompress(boolean large) {
+            int status = response.getStatus();
+            return large
+                && status != HttpServletResponse.SC_NO_CONTENT
+                && status != HttpServletResponse.SC_NOT_MODIFIED
+                && !response.containsHeader("Content-Encoding")
+                && isCompressibleType(response.getContentType());
+        }
+
+        /**
+         * Send the headers for the chosen encoding
+         */
+        void commitHeaders(boolean compressing, long uncompressedLength) {
+            if (compressing) {
+                response.setHeader("Content-Encoding", "gzip");
+                if (etag != null) {
+                    response.setHeader("ETag", gzipEtag(etag));
+                }
+            } else {
+                if (etag != null) {
+                    response.setHeader("ETag", uncompressedEtag());
+                }
+                if (contentLength >= 0) {
+                    response.setContentLengthLong(contentLength);
+                } else if (uncompressedLength >= 0) {
+                    response.setContentLengthLong(uncompressedLength);
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.close();
+            } else if (stream != null) {
+                stream.close();
+            } else if (etag != null) {
+                response.setHeader("ETag", uncompressedEtag());
+            }
+        }
+
+        /**
+         * ETag for an uncompressed response. A 304 stands in for the gzipped 200 the client cached,
+         * so it repeats the suffixed tag unless If-None-Match shows the client holds the identity body
+         */
+        private String uncompressedEtag() {
+            if (response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED
+                    && (ifNoneMatch == null || !ifNoneMatch.contains(etag))) {
+                return gzipEtag(etag);
+            }
+            return etag;
+        }
+    }
+
+    /**
+     * Output stream that buffers up to minCompressSize bytes, then commits to gzip or identity
+     */
+    private class CompressingStream extends ServletOutputStream {
+        private final CompressingResponse wrapper;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+        private ServletOutputStream raw;
+        private CountingStream counter;
+        boolean decided;
+        boolean compressing;
+        private long uncompressedBytes;
+        private boolean closed;
+        // Set while discard() drains the writer, so its leftover characters are dropped
+        private boolean discarding;
+
+        CompressingStream(CompressingResponse wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (discarding) return;
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (!decided) {
+                if (buffer.size() + len <= minCompressSize) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                decide(true, false);
+            }
+            uncompressedBytes += len;
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (discarding) return;
+            if (!decided) {
+                // Keep buffering compressible output until the threshold; flush anything else straight through
+                if (isCompressibleType(wrapper.response.getContentType())) return;
+                decide(false, false);
+            }
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            if (!decided) {
+                decide(false, true);
+            }
+            closed = true;
+            target.close();
+
+            if (compressing) {
+                compressedResponses.incrementAndGet();
+                bytesBeforeCompression.addAndGet(uncompressedBytes);
+                bytesAfterCompression.addAndGet(counter.count);
+            }
+        }
+
+        /**
+         * Drop everything written so far, including characters the writer has not yet encoded
+         * A gzip stream that has already started is finished into nothing and restarted on the
+         * emptied container buffer; with undecide the encoding is chosen again from scratch
+         */
+        void discard(PrintWriter writer, boolean undecide) {
+            discarding = true;
+            try {
+                if (writer != null) {
+                    writer.flush();
+                }
+            } finally {
+                discarding = false;
+            }
+
+            uncompressedBytes = 0;
+            if (!decided) {
+                buffer = new ByteArrayOutputStream();
+                return;
+            }
+            if (compressing) {
+                counter.detach();
+                try {
+                    target.close();
+                } catch (IOException e) {
+                    // Nothing is written anywhere once detached
+                }
+            }
+            if (undecide) {
+                decided = false;
+                compressing = false;
+                target = null;
+                counter = null;
+                buffer = new ByteArrayOutputStream();
+            } else if (compressing) {
+                try {
+                    counter = new CountingStream(raw);
+                    target = new GZIPOutputStream(counter, 8192, true);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to restart the gzip stream", e);
+                }
+            }
+        }
+
+        private void decide(boolean large, boolean complete) throws IOException {
+            decided = true;
+            compressing = wrapper.shouldCompress(large);
+            wrapper.commitHeaders(compressing, complete ? buffer.size() : -1);
+
+            raw = wrapper.response.getOutputStream();
+            if (compressing) {
+                counter = new CountingStream(raw);
+                // Sync flush so flush() calls from streaming writers still reach the client
+                target = new GZIPOutputStream(counter, 8192, true);
+            } else {
+                target = raw;
+            }
+
+            uncompressedBytes = buffer.size();
+            buffer.writeTo(target);
+            buffer = null;
+        }
+
+        @Override
+        public boolean isReady() {
+            // Only identity output can be non-blocking; buffered and gzipped writes always complete
+            return !decided || compressing || raw.isReady();
+        }
+
+        /**
+         * Non-blocking output is sent uncompressed: the encoding is decided now and the
+         * listener is registered on the container's stream
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (!decided) {
+                try {
+                    decide(false, false);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to start the response", e);
+                }
+            }
+            if (compressing) {
+                throw new IllegalStateException("Non-blocking writes cannot follow compressed output");
+            }
+            raw.setWriteListener(writeListener);
+        }
+    }
+
+    /**
+     * Counts bytes written to the underlying response stream
+     */
+    private static class CountingStream extends FilterOutputStream {
+        long count;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        /**
+         * Send any further output nowhere (used when a reset discards the gzip stream)
+         */
+        void detach() {
+            out = OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private boolean isCompressibleType(String contentType) {
+        if (contentType == null) return false;
+
+        String mimeType = contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        return compressibleTypes.contains(mimeType);
+    }
+}
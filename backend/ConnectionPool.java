@@ -0,0 +1,445 @@
+package com.customerdashboard.backend;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConnectionPool is a bounded JDBC connection pool
+ * Hands out proxied connections whose close() returns the physical connection to the pool.
+ * Statements are proxied too, so neither getConnection() nor unwrap() exposes the physical connection
+ */
+public class ConnectionPool {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxActive;
+    private final int maxIdle;
+    private final int minIdle;
+    private final long maxWaitMillis;
+    private final int validationTimeoutSeconds;
+    private final long leakThresholdMillis;
+    private final boolean captureBorrowStacks;
+
+    // Idle physical connections, most recently returned first
+    private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    // Permits bound the number of connections handed out at any time
+    private final Semaphore permits;
+    private final Map<Connection, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitNanos = new AtomicLong();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    /**
+     * Create a pool and open initialSize connections up front
+     * @param leakThresholdMillis report connections held longer than this; 0 disables leak detection
+     * @param captureBorrowStacks record a stack trace on every borrow so leak reports show where the
+     *                            connection was taken (costly; for debugging only)
+     */
+    public ConnectionPool(String url, String username, String password,
+                          int initialSize, int maxActive, int maxIdle, int minIdle,
+                          long maxWaitMillis, long leakThresholdMillis, boolean captureBorrowStacks) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxActive = Math.max(1, maxActive);
+        this.maxIdle = Math.max(0, Math.min(maxIdle, this.maxActive));
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxIdle));
+        this.maxWaitMillis = maxWaitMillis;
+        this.validationTimeoutSeconds = 2;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.captureBorrowStacks = captureBorrowStacks && leakThresholdMillis > 0;
+        this.permits = new Semaphore(this.maxActive, true);
+
+        int toOpen = Math.min(Math.max(initialSize, this.minIdle), this.maxIdle);
+        for (int i = 0; i < toOpen; i++) {
+            try {
+                idle.offerLast(openPhysical());
+            } catch (SQLException e) {
+                System.err.println("Error pre-opening pooled connection: " + e.getMessage());
+                break;
+            }
+        }
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, leakThresholdMillis > 0 ? leakThresholdMillis / 2 : 30000);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to maxWait for one to become available
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = maxWaitMillis < 0
+                ? acquireUninterruptibly()
+                : permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        recordWait(waited);
+
+        if (!acquired) {
+            borrowTimeouts.incrementAndGet();
+            throw new SQLTransientConnectionException(
+                "Timed out after " + maxWaitMillis + "ms waiting for a database connection (maxActive=" + maxActive + ")");
+        }
+
+        try {
+            Connection physical = takeValidIdle();
+            if (physical == null) {
+                physical = openPhysical();
+            }
+            Lease lease = new Lease(physical, captureBorrowStacks ? new Throwable("Connection borrowed here") : null);
+            leases.put(physical, lease);
+            return lease.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean acquireUninterruptibly() {
+        permits.acquireUninterruptibly();
+        return true;
+    }
+
+    private void recordWait(long waitedNanos) {
+        borrowCount.incrementAndGet();
+        borrowWaitNanos.addAndGet(waitedNanos);
+        maxBorrowWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+    }
+
+    /**
+     * Pop idle connections until one passes validation
+     */
+    private Connection takeValidIdle() {
+        Connection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            if (isUsable(candidate)) {
+                return candidate;
+            }
+            validationFailures.incrementAndGet();
+            closePhysical(candidate);
+        }
+        return null;
+    }
+
+    private boolean isUsable(Connection conn) {
+        try {
+            return !conn.isClosed() && conn.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, username, password);
+        totalConnections.incrementAndGet();
+        return conn;
+    }
+
+    private void closePhysical(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        } finally {
+            totalConnections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Return a physical connection to the pool, resetting any per-borrow state
+     */
+    private void release(Lease lease) {
+        Connection physical = lease.physical;
+        leases.remove(physical);
+        try {
+            boolean reusable = !closed && !lease.broken && !physical.isClosed();
+            if (reusable) {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+            }
+            if (reusable && idle.size() < maxIdle) {
+                idle.offerFirst(physical);
+            } else {
+                closePhysical(physical);
+            }
+        } catch (SQLException e) {
+            closePhysical(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Report long-held connections and refill the idle set up to minIdle
+     */
+    private void housekeep() {
+        if (closed) return;
+
+        if (leakThresholdMillis > 0) {
+            long now = System.currentTimeMillis();
+            for (Lease lease : leases.values()) {
+                if (!lease.reportedLeak && now - lease.borrowedAt > leakThresholdMillis) {
+                    lease.reportedLeak = true;
+                    leaksDetected.incrementAndGet();
+                    System.err.println("Possible connection leak: connection borrowed by thread "
+                        + lease.borrowThread + " held for " + (now - lease.borrowedAt) + "ms");
+                    if (lease.borrowSite != null) {
+                        lease.borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        while (idle.size() < minIdle && totalConnections.get() < maxActive) {
+            try {
+                idle.offerLast(openPhysical());
+            } catch (SQLException e) {
+                System.err.println("Error refilling connection pool: " + e.getMessage());
+                break;
+            }
+        }
+    }
+
+    /**
+     * Close all idle connections; borrowed connections are closed as they are returned
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            closePhysical(conn);
+        }
+    }
+
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    // Metrics accessors
+    public int getActiveCount() {
+        return leases.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public double getAverageBorrowWaitMillis() {
+        long count = borrowCount.get();
+        return count > 0 ? borrowWaitNanos.get() / 1_000_000.0 / count : 0;
+    }
+
+    public double getMaxBorrowWaitMillis() {
+        return maxBorrowWaitNanos.get() / 1_000_000.0;
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "ConnectionPool{active=%d, idle=%d, total=%d, waiting=%d, borrows=%d, avgWaitMs=%.3f, " +
+            "maxWaitMs=%.3f, timeouts=%d, validationFailures=%d, leaks=%d}",
+            getActiveCount(), getIdleCount(), getTotalConnections(), getWaitingThreads(), getBorrowCount(),
+            getAverageBorrowWaitMillis(), getMaxBorrowWaitMillis(), getBorrowTimeouts(),
+            getValidationFailures(), getLeaksDetected()
+        );
+    }
+
+    /**
+     * A single borrow of a physical connection
+     */
+    private class Lease implements InvocationHandler {
+        final Connection physical;
+        final Connection proxy;
+        final long borrowedAt = System.currentTimeMillis();
+        final String borrowThread = Thread.currentThread().getName();
+        // Only captured when captureBorrowStacks is set
+        final Throwable borrowSite;
+        volatile boolean returned;
+        volatile boolean broken;
+        volatile boolean reportedLeak;
+
+        Lease(Connection physical, Throwable borrowSite) {
+            this.physical = physical;
+            this.borrowSite = borrowSite;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxyObj, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxyObj == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyObj);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                case "unwrap":
+                case "isWrapperFor":
+                    return unwrap(proxyObj, Connection.class, method, args);
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            Object result = invokePhysical(physical, method, args);
+            if (result instanceof Statement) {
+                // createStatement, prepareStatement, prepareCall
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { method.getReturnType() }, new StatementHandler((Statement) result));
+            }
+            return result;
+        }
+
+        /**
+         * Call a method on a physical connection or statement, marking the lease broken on connection errors
+         */
+        private Object invokePhysical(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException && isFatal((SQLException) cause)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        /**
+         * unwrap/isWrapperFor: answer from the proxy itself and never hand out the physical
+         * connection or statement (closing that directly would bypass the pool)
+         */
+        private Object unwrap(Object proxyObj, Class<?> wrapped, Method method, Object[] args) throws SQLException {
+            Class<?> iface = (Class<?>) args[0];
+            boolean isProxy = iface.isInstance(proxyObj);
+            if ("isWrapperFor".equals(method.getName())) {
+                return isProxy;
+            }
+            if (!isProxy) {
+                throw new SQLException("A pooled " + wrapped.getSimpleName() + " cannot be unwrapped to " + iface.getName());
+            }
+            return proxyObj;
+        }
+
+        /**
+         * Statement proxy whose getConnection() returns the pooled connection, not the physical one
+         */
+        private class StatementHandler implements InvocationHandler {
+            private final Statement statement;
+
+            StatementHandler(Statement statement) {
+                this.statement = statement;
+            }
+
+            @Override
+            public Object invoke(Object proxyObj, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "getConnection":
+                        return proxy;
+                    case "equals":
+                        return proxyObj == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxyObj);
+                    case "toString":
+                        return "PooledStatement[" + statement + "]";
+                    case "unwrap":
+                    case "isWrapperFor":
+                        return unwrap(proxyObj, Statement.class, method, args);
+                    case "close":
+                    case "isClosed":
+                        break;
+                    default:
+                        if (returned) {
+                            throw new SQLException("Statement's connection has already been returned to the pool");
+                        }
+                }
+                return invokePhysical(statement, method, args);
+            }
+        }
+
+        private boolean isFatal(SQLException e) {
+            // SQLState class 08 is "connection exception"
+            String state = e.getSQLState();
+            return state != null && state.startsWith("08");
+        }
+    }
+}
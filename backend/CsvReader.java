@@ -0,0 +1,324 @@
+package com.customerdashboard.backend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * CsvReader parses RFC 4180 CSV straight from a byte stream
+ * Records are tokenized in place inside one reusable buffer: a row is a set of
+ * field offsets into that buffer, so numbers and dates are read without creating
+ * strings, and only fields the caller asks for as text are decoded (UTF-8)
+ */
+public class CsvReader {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Receives records in file order
+     */
+    public interface RowCallback {
+        void row(CsvRow row) throws Exception;
+    }
+
+    private final byte delimiter;
+    private final int bufferSize;
+
+    public CsvReader() {
+        this((byte) ',', DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvReader(byte delimiter, int bufferSize) {
+        this.delimiter = delimiter;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Read every record from the stream; blank lines are skipped
+     */
+    public void read(InputStream in, RowCallback callback) throws Exception {
+        CsvRow row = new CsvRow(new byte[bufferSize]);
+        int limit = fill(in, row.buffer, 0);
+        boolean eof = limit < row.buffer.length;
+        int position = 0;
+        long recordNumber = 0;
+
+        // Skip a UTF-8 byte order mark
+        if (limit >= 3 && (row.buffer[0] & 0xFF) == 0xEF && (row.buffer[1] & 0xFF) == 0xBB
+                && (row.buffer[2] & 0xFF) == 0xBF) {
+            position = 3;
+        }
+
+        while (position < limit || !eof) {
+            int next = parseRecord(row, position, limit, eof);
+            if (next < 0) {
+                // The record runs past the buffered bytes: move it to the front (growing if it
+                // fills the whole buffer), read more and parse it again
+                int remaining = limit - position;
+                if (position == 0) {
+                    row.buffer = Arrays.copyOf(row.buffer, row.buffer.length * 2);
+                } else {
+                    System.arraycopy(row.buffer, position, row.buffer, 0, remaining);
+                }
+                limit = fill(in, row.buffer, remaining);
+                eof = limit < row.buffer.length;
+                position = 0;
+                continue;
+            }
+
+            position = next;
+            if (row.width == 1 && row.starts[0] == row.ends[0] && !row.quoted[0]) continue;
+
+            row.rowNumber = ++recordNumber;
+            callback.row(row);
+        }
+    }
+
+    /**
+     * Read until the buffer is full or the stream ends
+     * @return the new number of bytes in the buffer
+     */
+    private static int fill(InputStream in, byte[] buffer, int offset) throws IOException {
+        while (offset < buffer.length) {
+            int read = in.read(buffer, offset, buffer.length - offset);
+            if (read < 0) break;
+            offset += read;
+        }
+        return offset;
+    }
+
+    /**
+     * Tokenize one record starting at position
+     * @return the offset after the record terminator, or -1 if more input is needed
+     */
+    private int parseRecord(CsvRow row, int position, int limit, boolean eof) {
+        byte[] buf = row.buffer;
+        row.width = 0;
+        int i = position;
+
+        while (true) {
+            int start;
+            int end;
+            boolean quoted = false;
+            boolean escaped = false;
+
+            if (i < limit && buf[i] == '"') {
+                quoted = true;
+                start = ++i;
+                while (true) {
+                    if (i >= limit) {
+                        if (!eof) return -1;
+                        // Unterminated quote: the field runs to the end of input
+                        end = i;
+                        break;
+                    }
+                    if (buf[i] == '"') {
+                        if (i + 1 >= limit && !eof) return -1;
+                        if (i + 1 < limit && buf[i + 1] == '"') {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        end = i++;
+                        break;
+                    }
+                    i++;
+                }
+                // Anything between the closing quote and the delimiter is ignored
+                while (i < limit && buf[i] != delimiter && buf[i] != '\n' && buf[i] != '\r') {
+                    i++;
+                }
+            } else {
+                start = i;
+                while (i < limit && buf[i] != delimiter && buf[i] != '\n' && buf[i] != '\r') {
+                    i++;
+                }
+                end = i;
+            }
+
+            if (i >= limit && !eof) return -1;
+            row.addField(start, end, quoted, escaped);
+
+            if (i >= limit) {
+                return limit;
+            }
+            if (buf[i] == delimiter) {
+                i++;
+                continue;
+            }
+            // Record terminator: \n, \r\n or a lone \r
+            if (buf[i] == '\r') {
+                if (i + 1 >= limit && !eof) return -1;
+                if (i + 1 < limit && buf[i + 1] == '\n') i++;
+            }
+            return i + 1;
+        }
+    }
+
+    /**
+     * A reusable view of the current record
+     * Field accessors read directly from the shared buffer, so a row is only valid
+     * inside the callback that received it
+     */
+    public static class CsvRow {
+        private byte[] buffer;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private boolean[] quoted = new boolean[16];
+        private boolean[] escaped = new boolean[16];
+        private int width;
+        private long rowNumber;
+
+        CsvRow(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * 1-based record number, counting the header and excluding blank lines
+         */
+        public long getRowNumber() {
+            return rowNumber;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Field text with quotes removed, or null when the column is missing
+         */
+        public String getValue(int column) {
+            if (column < 0 || column >= width) return null;
+
+            int start = starts[column];
+            int length = ends[column] - start;
+            if (!escaped[column]) {
+                return new String(buffer, start, length, StandardCharsets.UTF_8);
+            }
+
+            // Collapse doubled quotes
+            byte[] unescaped = new byte[length];
+            int n = 0;
+            for (int i = start; i < ends[column]; i++) {
+                unescaped[n++] = buffer[i];
+                if (buffer[i] == '"') i++;
+            }
+            return new String(unescaped, 0, n, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * True when the column is missing or holds only whitespace
+         */
+        public boolean isBlank(int column) {
+            if (column < 0 || column >= width) return true;
+            for (int i = starts[column]; i < ends[column]; i++) {
+                if (buffer[i] != ' ' && buffer[i] != '\t') return false;
+            }
+            return true;
+        }
+
+        /**
+         * The field as an integer (surrounding whitespace, a sign and a ".0" fraction allowed),
+         * or null if it is not one
+         */
+        public Integer getInteger(int column) {
+            if (column < 0 || column >= width) return null;
+
+            int i = starts[column];
+            int end = ends[column];
+            while (i < end && buffer[i] == ' ') i++;
+            while (end > i && buffer[end - 1] == ' ') end--;
+
+            boolean negative = false;
+            if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+                negative = buffer[i] == '-';
+                i++;
+            }
+            int digitsStart = i;
+            int value = 0;
+            while (i < end && buffer[i] >= '0' && buffer[i] <= '9') {
+                value = value * 10 + (buffer[i] - '0');
+                i++;
+            }
+            int digits = i - digitsStart;
+            if (digits == 0 || digits > 9) return null;
+
+            if (i < end && buffer[i] == '.') {
+                // Whole numbers written as decimals, e.g. "4.0"
+                i++;
+                while (i < end && buffer[i] == '0') i++;
+            }
+            if (i != end) return null;
+            return negative ? -value : value;
+        }
+
+        /**
+         * The field as an ISO date (yyyy-MM-dd, optionally followed by a time), or null if it is not one
+         */
+        public LocalDate getIsoDate(int column) {
+            if (column < 0 || column >= width) return null;
+
+            int i = starts[column];
+            int end = ends[column];
+            while (i < end && buffer[i] == ' ') i++;
+            if (end - i < 10 || buffer[i + 4] != '-' || buffer[i + 7] != '-') return null;
+            if (end - i > 10 && buffer[i + 10] != 'T' && buffer[i + 10] != ' ') return null;
+
+            int year = digits(i, 4);
+            int month = digits(i + 5, 2);
+            int day = digits(i + 8, 2);
+            if (year < 0 || month < 0 || day < 0) return null;
+            try {
+                return LocalDate.of(year, month, day);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * True when the field equals text ignoring ASCII case and surrounding spaces
+         */
+        public boolean equalsIgnoreCase(int column, String text) {
+            if (column < 0 || column >= width || escaped[column]) return false;
+
+            int i = starts[column];
+            int end = ends[column];
+            while (i < end && buffer[i] == ' ') i++;
+            while (end > i && buffer[end - 1] == ' ') end--;
+            if (end - i != text.length()) return false;
+
+            for (int k = 0; k < text.length(); k++) {
+                int b = buffer[i + k];
+                int c = text.charAt(k);
+                if (b != c && Character.toLowerCase(b) != Character.toLowerCase(c)) return false;
+            }
+            return true;
+        }
+
+        private int digits(int offset, int count) {
+            int value = 0;
+            for (int i = offset; i < offset + count; i++) {
+                if (buffer[i] < '0' || buffer[i] > '9') return -1;
+                value = value * 10 + (buffer[i] - '0');
+            }
+            return value;
+        }
+
+        void addField(int start, int end, boolean isQuoted, boolean isEscaped) {
+            if (width == starts.length) {
+                int capacity = width * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                quoted = Arrays.copyOf(quoted, capacity);
+                escaped = Arrays.copyOf(escaped, capacity);
+            }
+            starts[width] = start;
+            ends[width] = end;
+            quoted[width] = isQuoted;
+            escaped[width] = isEscaped;
+            width++;
+        }
+    }
+}
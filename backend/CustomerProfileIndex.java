@@ -0,0 +1,274 @@
+package com.customerdashboard.backend;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * CustomerProfileIndex keeps a satisfaction profile per customer in memory
+ * Profiles are seeded once from survey_responses and updated on every insert, and
+ * customers are kept ordered by risk score so the most at-risk can be listed
+ * without scanning
+ */
+public class CustomerProfileIndex {
+    // Surveys included in the rolling averages
+    static final int RECENT_SURVEYS = 5;
+    // NPS answers kept per customer
+    static final int NPS_HISTORY = 20;
+
+    private final Map<String, CustomerProfile> profiles = new HashMap<>();
+    // Highest risk first; ties broken by customer id so every profile has a unique position
+    private final TreeSet<CustomerProfile> byRisk = new TreeSet<>(
+        Comparator.comparingDouble((CustomerProfile p) -> p.riskScore).reversed()
+                  .thenComparing(p -> p.customerId));
+
+    /**
+     * Load profiles for every customer with survey responses
+     */
+    public void seed(DatabaseManager dbManager) throws SQLException {
+        // Ordered by the (customer_id, survey_date) index so each history is built oldest first
+        String sql = """
+            SELECT customer_id, survey_date, food_quality, service_quality, hygiene,
+                   value_for_money, overall_satisfaction, nps_score
+            FROM survey_responses
+            ORDER BY customer_id, survey_date
+        """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(1000);
+
+            synchronized (this) {
+                profiles.clear();
+                byRisk.clear();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp surveyDate = rs.getTimestamp("survey_date");
+                        int nps = rs.getInt("nps_score");
+                        Integer npsScore = rs.wasNull() ? null : nps;
+                        record(rs.getString("customer_id"), surveyDate, rs.getInt("food_quality"),
+                               rs.getInt("service_quality"), rs.getInt("hygiene"), rs.getInt("value_for_money"),
+                               rs.getString("overall_satisfaction"), npsScore);
+                    }
+                }
+            }
+        }
+
+        System.out.println("Customer profiles seeded for " + profiles.size() + " customers");
+    }
+
+    /**
+     * Add a newly inserted survey response
+     */
+    public void record(SurveyResponse response) {
+        record(response.getCustomerId(), response.getSurveyDate(), response.getFoodQuality(),
+               response.getServiceQuality(), response.getHygiene(), response.getValueForMoney(),
+               response.getOverallSatisfaction(), response.getNpsScore());
+    }
+
+    private synchronized void record(String customerId, Date surveyDate, int foodQuality, int serviceQuality,
+                                     int hygiene, int valueForMoney, String overallSatisfaction, Integer npsScore) {
+        if (customerId == null || customerId.isEmpty()) return;
+
+        CustomerProfile profile = profiles.get(customerId);
+        if (profile == null) {
+            profile = new CustomerProfile(customerId);
+            profiles.put(customerId, profile);
+        } else {
+            // Re-keyed below once the score changes
+            byRisk.remove(profile);
+        }
+
+        LocalDate date = (surveyDate != null ? surveyDate : new Date())
+            .toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        profile.add(date, foodQuality, serviceQuality, hygiene, valueForMoney, overallSatisfaction, npsScore);
+        byRisk.add(profile);
+    }
+
+    /**
+     * Profile JSON for one customer, or null if they have no surveys
+     */
+    public synchronized JsonObject getProfileJson(String customerId) {
+        CustomerProfile profile = profiles.get(customerId);
+        return profile != null ? profile.toJson(true) : null;
+    }
+
+    /**
+     * The limit customers with the highest risk scores, highest first
+     */
+    public synchronized JsonArray getAtRiskJson(int limit) {
+        JsonArray customers = new JsonArray();
+        Iterator<CustomerProfile> it = byRisk.iterator();
+        while (it.hasNext() && customers.size() < limit) {
+            customers.add(it.next().toJson(false));
+        }
+        return customers;
+    }
+
+    public synchronized int size() {
+        return profiles.size();
+    }
+
+    /**
+     * One NPS answer in a customer's history
+     */
+    private static class NpsEntry {
+        final LocalDate date;
+        final int score;
+
+        NpsEntry(LocalDate date, int score) {
+            this.date = date;
+            this.score = score;
+        }
+
+        String category() {
+            return score >= 9 ? "promoter" : score <= 6 ? "detractor" : "passive";
+        }
+    }
+
+    /**
+     * One survey in a customer's rolling window
+     */
+    private static class RecentSurvey {
+        final LocalDate date;
+        final int satisfactionScore;
+        final Integer npsScore;
+
+        RecentSurvey(LocalDate date, int satisfactionScore, Integer npsScore) {
+            this.date = date;
+            this.satisfactionScore = satisfactionScore;
+            this.npsScore = npsScore;
+        }
+    }
+
+    /**
+     * Running totals, rolling window and NPS history for one customer
+     * The rolling window and history hold the latest entries by survey date,
+     * so uploads of older surveys do not displace newer ones
+     */
+    private static class CustomerProfile {
+        final String customerId;
+        final MetricTotals totals = new MetricTotals();
+        LocalDate firstSurvey;
+        LocalDate lastSurvey;
+        // Oldest first, at most RECENT_SURVEYS
+        final List<RecentSurvey> recent = new ArrayList<>();
+        // Oldest first, at most NPS_HISTORY
+        final List<NpsEntry> npsHistory = new ArrayList<>();
+        double riskScore;
+
+        CustomerProfile(String customerId) {
+            this.customerId = customerId;
+        }
+
+        void add(LocalDate date, int foodQuality, int serviceQuality, int hygiene, int valueForMoney,
+                 String overallSatisfaction, Integer npsScore) {
+            totals.add(foodQuality, serviceQuality, hygiene, valueForMoney, overallSatisfaction, npsScore);
+            if (firstSurvey == null || date.isBefore(firstSurvey)) firstSurvey = date;
+            if (lastSurvey == null || date.isAfter(lastSurvey)) lastSurvey = date;
+
+            insertByDate(recent, new RecentSurvey(date, SurveyResponse.satisfactionScore(overallSatisfaction), npsScore),
+                         s -> s.date, RECENT_SURVEYS);
+            if (npsScore != null) {
+                insertByDate(npsHistory, new NpsEntry(date, npsScore), e -> e.date, NPS_HISTORY);
+            }
+            riskScore = computeRisk();
+        }
+
+        double recentAverageSatisfaction() {
+            long sum = 0;
+            for (RecentSurvey survey : recent) {
+                sum += survey.satisfactionScore;
+            }
+            return MetricTotals.average(sum, recent.size());
+        }
+
+        /**
+         * 0-100: 60% from how far the rolling satisfaction average sits below 5,
+         * 40% from the share of detractor NPS answers in the rolling window
+         */
+        private double computeRisk() {
+            double satisfactionRisk = (5 - recentAverageSatisfaction()) / 4;
+            int npsAnswers = 0;
+            int detractors = 0;
+            for (RecentSurvey survey : recent) {
+                if (survey.npsScore != null) {
+                    npsAnswers++;
+                    if (survey.npsScore <= 6) detractors++;
+                }
+            }
+            double npsRisk = npsAnswers > 0 ? (double) detractors / npsAnswers : 0;
+            double risk = (0.6 * satisfactionRisk + 0.4 * npsRisk) * 100;
+            return Math.round(Math.max(0, Math.min(100, risk)) * 10) / 10.0;
+        }
+
+        JsonObject toJson(boolean detailed) {
+            JsonObject json = new JsonObject();
+            json.addProperty("customerId", customerId);
+            json.addProperty("surveyCount", totals.getResponseCount());
+            json.addProperty("lastSurveyDate", lastSurvey.toString());
+            json.addProperty("riskScore", riskScore);
+            json.addProperty("recentAvgSatisfaction", recentAverageSatisfaction());
+            json.addProperty("avgSatisfaction", totals.getAverageSatisfaction());
+            if (!npsHistory.isEmpty()) {
+                json.addProperty("lastNpsCategory", npsHistory.get(npsHistory.size() - 1).category());
+            }
+            if (!detailed) return json;
+
+            json.addProperty("firstSurveyDate", firstSurvey.toString());
+            json.addProperty("satisfactionTrend", recentAverageSatisfaction() - totals.getAverageSatisfaction());
+            JsonObject averages = new JsonObject();
+            totals.writeAverages(averages);
+            averages.remove("totalResponses");
+            json.add("averages", averages);
+            json.add("satisfactionDistribution", totals.distributionJson());
+            if (totals.getNpsScore() != null) {
+                json.addProperty("npsScore", totals.getNpsScore());
+            }
+
+            JsonArray history = new JsonArray();
+            for (NpsEntry entry : npsHistory) {
+                JsonObject item = new JsonObject();
+                item.addProperty("date", entry.date.toString());
+                item.addProperty("npsScore", entry.score);
+                item.addProperty("category", entry.category());
+                history.add(item);
+            }
+            json.add("npsHistory", history);
+            return json;
+        }
+
+        /**
+         * Insert keeping the list ordered by date and trimmed to the newest max entries
+         */
+        private static <T> void insertByDate(List<T> list, T item, Function<T, LocalDate> dateOf,
+                                             int max) {
+            int index = list.size();
+            while (index > 0 && dateOf.apply(list.get(index - 1)).isAfter(dateOf.apply(item))) {
+                index--;
+            }
+            if (index == 0 && list.size() >= max) return;
+
+            list.add(index, item);
+            if (list.size() > max) {
+                list.remove(0);
+            }
+        }
+    }
+}
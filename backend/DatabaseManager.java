@@ -1,11 +1,17 @@
 package com.customerdashboard.backend;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.io.InputStream;
 import java.io.IOException;
 
@@ -19,9 +25,10 @@ public class DatabaseManager {
     private String dbUsername;
     private String dbPassword;
     private String dbDriver;
+    private Properties config = new Properties();
     
     // Connection pool variables
-    private Connection connection;
+    private ConnectionPool connectionPool;
     
     /**
      * Constructor - loads database configuration
@@ -40,6 +47,7 @@ public class DatabaseManager {
         try (InputStream input = getClass().getResourceAsStream(DB_PROPERTIES_FILE)) {
             if (input != null) {
                 props.load(input);
+                config = props;
                 
                 dbUrl = props.getProperty("db.url", "jdbc:h2:./data/customerdb;AUTO_SERVER=TRUE");
                 dbUsername = props.getProperty("db.username", "sa");
@@ -73,9 +81,15 @@ public class DatabaseManager {
             // Load database driver
             Class.forName(dbDriver);
             
+            // Open the connection pool before any table work
+            connectionPool = createConnectionPool();
+            
             // Create tables if they don't exist
             createTables();
             
+            // Upgrade existing schemas in place
+            runMigrations();
+            
             // Insert sample data if tables are empty
             insertSampleData();
             
@@ -89,19 +103,65 @@ public class DatabaseManager {
     }
     
     /**
-     * Get database connection
+     * Create the connection pool from the db.pool.* settings
+     */
+    private ConnectionPool createConnectionPool() {
+        return new ConnectionPool(
+            dbUrl, dbUsername, dbPassword,
+            getIntProperty("db.pool.initialSize", 5),
+            getIntProperty("db.pool.maxActive", 20),
+            getIntProperty("db.pool.maxIdle", 10),
+            getIntProperty("db.pool.minIdle", 5),
+            getIntProperty("db.pool.maxWait", 10000),
+            getIntProperty("db.pool.leakDetectionThreshold", 0),
+            Boolean.parseBoolean(getProperty("db.pool.leakDetectionStackTraces", "false"))
+        );
+    }
+    
+    /**
+     * Get a pooled database connection
+     * Callers must close it (try-with-resources) to return it to the pool
      */
     public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(dbUrl, dbUsername, dbPassword);
+        if (connectionPool == null) {
+            throw new SQLException("Database connection pool is not initialized");
+        }
+        return connectionPool.getConnection();
+    }
+    
+    /**
+     * Get the connection pool (for metrics)
+     */
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+    
+    /**
+     * Get a configuration value from db.properties
+     */
+    public String getProperty(String key, String defaultValue) {
+        return config.getProperty(key, defaultValue);
+    }
+    
+    /**
+     * Get an integer configuration value from db.properties
+     */
+    public int getIntProperty(String key, int defaultValue) {
+        String value = config.getProperty(key);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid value for " + key + ": " + value);
+            }
         }
-        return connection;
+        return defaultValue;
     }
     
     /**
      * Create database tables
      */
-    private void createTables() throws SQLException {
+    protected void createTables() throws SQLException {
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement()) {
             
@@ -169,10 +229,96 @@ public class DatabaseManager {
         }
     }
     
+    /**
+     * Versioned schema changes applied after table creation
+     * Subclasses add their own migrations; versions must be unique and never reused
+     */
+    protected List<SchemaMigration> getMigrations() {
+        return new ArrayList<>();
+    }
+    
+    /**
+     * Apply pending migrations in version order and record each in schema_version
+     * DDL commits implicitly on H2 and MySQL, so a migration that fails part way keeps the
+     * statements that ran. Re-running it on the next startup skips statements whose column,
+     * index or table already exists, so the migration can still complete
+     */
+    private void runMigrations() throws SQLException {
+        List<SchemaMigration> migrations = getMigrations();
+        migrations.sort(Comparator.comparingInt(SchemaMigration::getVersion));
+        
+        try (Connection conn = getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INT PRIMARY KEY,
+                        description VARCHAR(200) NOT NULL,
+                        applied_on TIMESTAMP NOT NULL
+                    )
+                """);
+            }
+            
+            Set<Integer> applied = new HashSet<>();
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT version FROM schema_version");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    applied.add(rs.getInt(1));
+                }
+            }
+            
+            for (SchemaMigration migration : migrations) {
+                if (applied.contains(migration.getVersion())) continue;
+                
+                conn.setAutoCommit(false);
+                try (Statement stmt = conn.createStatement();
+                     PreparedStatement record = conn.prepareStatement(
+                         "INSERT INTO schema_version (version, description, applied_on) VALUES (?, ?, ?)")) {
+                    for (String sql : migration.getStatements()) {
+                        try {
+                            stmt.execute(sql);
+                        } catch (SQLException e) {
+                            if (!isAlreadyApplied(e)) throw e;
+                            System.out.println("Schema migration " + migration.getVersion()
+                                + ": skipping statement already applied (" + e.getMessage().split("\n", 2)[0] + ")");
+                        }
+                    }
+                    record.setInt(1, migration.getVersion());
+                    record.setString(2, migration.getDescription());
+                    record.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                    record.executeUpdate();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("Schema migration " + migration.getVersion() + " ("
+                        + migration.getDescription() + ") failed: " + e.getMessage(), e);
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                
+                System.out.println("Applied schema migration " + migration.getVersion() + ": " + migration.getDescription());
+            }
+        }
+    }
+    
+    /**
+     * True when a DDL error means the column, index or table being created already exists
+     */
+    private static boolean isAlreadyApplied(SQLException e) {
+        String state = e.getSQLState();
+        // 42S01/42S11/42S21: table/index/column exists (H2, MySQL); 42P07/42701: PostgreSQL equivalents
+        if ("42S01".equals(state) || "42S11".equals(state) || "42S21".equals(state)
+                || "42P07".equals(state) || "42701".equals(state)) {
+            return true;
+        }
+        // MySQL: table exists, duplicate column, duplicate key name
+        int code = e.getErrorCode();
+        return code == 1050 || code == 1060 || code == 1061;
+    }
+    
     /**
      * Insert sample data for testing
      */
-    private void insertSampleData() throws SQLException {
+    protected void insertSampleData() throws SQLException {
         try (Connection conn = getConnection()) {
             
             // Check if data already exists
@@ -288,15 +434,12 @@ public class DatabaseManager {
     }
     
     /**
-     * Close database connection
+     * Close the connection pool
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
+        if (connectionPool != null) {
+            System.out.println("Closing database connection pool: " + connectionPool);
+            connectionPool.close();
         }
     }
     
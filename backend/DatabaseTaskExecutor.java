@@ -0,0 +1,128 @@
+package com.customerdashboard.backend;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DatabaseTaskExecutor runs DB-bound request handlers off the container threads
+ * At most maxConcurrent tasks run at once and at most maxQueued wait behind them;
+ * anything beyond that is rejected, and tasks that wait longer than their deadline
+ * are expired instead of run. Uses virtual threads when the JDK provides them
+ */
+public class DatabaseTaskExecutor {
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int EXPIRED = 2;
+
+    private final ExecutorService executor;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final boolean virtualThreads;
+
+    public DatabaseTaskExecutor(int maxConcurrent, int maxQueued, boolean preferVirtualThreads) {
+        admitted = new Semaphore(maxConcurrent + maxQueued);
+        running = new Semaphore(maxConcurrent);
+
+        ExecutorService virtualExecutor = preferVirtualThreads ? newVirtualThreadExecutor() : null;
+        virtualThreads = virtualExecutor != null;
+        if (virtualThreads) {
+            executor = virtualExecutor;
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(maxConcurrent, r -> {
+                Thread t = new Thread(r, "db-handler-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "db-handler-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        // Deadlines are cancelled as soon as their task finishes; do not keep them queued
+        timer.setRemoveOnCancelPolicy(true);
+
+        System.out.println("DB handler executor: " + maxConcurrent + " concurrent, " + maxQueued + " queued, "
+            + (virtualThreads ? "virtual" : "platform") + " threads");
+    }
+
+    /**
+     * Look up Executors.newVirtualThreadPerTaskExecutor (JDK 21+) without requiring it at compile time
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Queue a task
+     * @param onExpired run instead of the task if it has not started within timeoutMillis
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public void submit(Runnable task, long timeoutMillis, Runnable onExpired) {
+        if (!admitted.tryAcquire()) {
+            throw new RejectedExecutionException("Too many queued database requests");
+        }
+
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        long startedAt = System.currentTimeMillis();
+
+        ScheduledFuture<?> deadline = timer.schedule(() -> {
+            if (state.compareAndSet(QUEUED, EXPIRED)) {
+                onExpired.run();
+            } else if (state.get() == RUNNING) {
+                System.err.println("DB handler still running after " + timeoutMillis + " ms");
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            executor.execute(() -> {
+                try {
+                    long remaining = timeoutMillis - (System.currentTimeMillis() - startedAt);
+                    if (!running.tryAcquire(Math.max(0, remaining), TimeUnit.MILLISECONDS)) {
+                        if (state.compareAndSet(QUEUED, EXPIRED)) {
+                            onExpired.run();
+                        }
+                        return;
+                    }
+                    try {
+                        if (state.compareAndSet(QUEUED, RUNNING)) {
+                            task.run();
+                        }
+                    } finally {
+                        running.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (state.compareAndSet(QUEUED, EXPIRED)) {
+                        onExpired.run();
+                    }
+                } finally {
+                    deadline.cancel(false);
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            deadline.cancel(false);
+            admitted.release();
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+}
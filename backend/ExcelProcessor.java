@@ -1,37 +1,170 @@
 package com.customerdashboard.backend;
 
+import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 
 /**
  * ExcelProcessor handles Excel file processing for survey data
- * Supports both .xlsx and .xls formats
+ * Supports both .xlsx and .xls formats, plus CSV exports with the same columns
+ * .xlsx and CSV files are streamed row by row; .xls files are loaded as a workbook
  */
 public class ExcelProcessor {
     
     /**
-     * Process Excel file and extract survey responses
+     * Receives parsed survey rows and per-row parse errors
      */
-    public List<SurveyResponse> processExcelFile(InputStream inputStream) throws Exception {
-        List<SurveyResponse> responses = new ArrayList<>();
+    public interface RowHandler {
+        void onRow(long rowNumber, SurveyResponse response) throws Exception;
+        
+        void onError(long rowNumber, String message);
+    }
+    
+    /**
+     * Process a CSV file from a stream, handing each row to the handler as it is parsed
+     * The first non-blank record is the header; the stream is parsed as it arrives without spooling
+     */
+    public void processCsvFile(InputStream inputStream, RowHandler handler) throws Exception {
+        DecodingPlan[] plan = new DecodingPlan[1];
         
         try {
-            // Try to create workbook (handles both .xlsx and .xls)
-            Workbook workbook = null;
+            new CsvReader().read(inputStream, row -> {
+                if (plan[0] == null) {
+                    plan[0] = compilePlan(headerNames(row));
+                    return;
+                }
+                
+                SurveyResponse response;
+                try {
+                    response = processRow(row, plan[0]);
+                } catch (Exception e) {
+                    plan[0].rowFailed(handler, row.getRowNumber(), e.getMessage());
+                    return;
+                }
+                // Handler failures (such as cancellation) stop the parse
+                plan[0].emit(handler, row.getRowNumber(), response);
+            });
+        } catch (Exception e) {
+            throw new Exception("Error processing CSV file: " + e.getMessage(), e);
+        }
+        
+        if (plan[0] == null) {
+            throw new Exception("Header row not found");
+        }
+        plan[0].finish(handler);
+    }
+    
+    /**
+     * Process a CSV file on disk, handing each row to the handler as it is parsed
+     */
+    public void processCsvFile(File file, RowHandler handler) throws Exception {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            processCsvFile(in, handler);
+        }
+    }
+    
+    /**
+     * List every sheet of a workbook (or the file itself for CSV) as a separately parseable source
+     * Each source opens the file on its own, so sources can be read concurrently
+     */
+    public List<SurveyIngestPipeline.Source> listSources(File file, String fileName, boolean csv) throws Exception {
+        List<SurveyIngestPipeline.Source> sources = new ArrayList<>();
+        if (csv) {
+            sources.add(new SurveyIngestPipeline.Source(fileName, null, handler -> processCsvFile(file, handler)));
+            return sources;
+        }
+        
+        try {
+            FileMagic fileMagic;
+            try (InputStream in = FileMagic.prepareToCheckMagic(Files.newInputStream(file.toPath()))) {
+                fileMagic = FileMagic.valueOf(in);
+            }
+            
+            boolean xlsx = fileMagic == FileMagic.OOXML;
+            List<String> sheetNames = xlsx ? new XlsxStreamingReader().getSheetNames(file) : workbookSheetNames(file);
+            for (int i = 0; i < sheetNames.size(); i++) {
+                int sheetIndex = i;
+                sources.add(new SurveyIngestPipeline.Source(fileName, sheetNames.get(i), handler -> {
+                    try {
+                        if (xlsx) {
+                            streamXlsx(file, sheetIndex, handler);
+                        } else {
+                            readWorkbook(file, sheetIndex, handler);
+                        }
+                    } catch (Exception e) {
+                        throw new Exception("Error processing Excel file: " + e.getMessage(), e);
+                    }
+                }));
+            }
+        } catch (Exception e) {
+            throw new Exception("Error processing Excel file: " + e.getMessage(), e);
+        }
+        return sources;
+    }
+    
+    /**
+     * Sheet names of a workbook (.xls) in workbook order
+     */
+    private List<String> workbookSheetNames(File file) throws Exception {
+        List<String> names = new ArrayList<>();
+        try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                names.add(workbook.getSheetName(i));
+            }
+        }
+        return names;
+    }
+    
+    /**
+     * Stream one sheet of an .xlsx file with the SAX reader
+     */
+    private void streamXlsx(File file, int sheetIndex, RowHandler handler) throws Exception {
+        DecodingPlan[] plan = new DecodingPlan[1];
+        
+        new XlsxStreamingReader().readSheet(file, sheetIndex, row -> {
+            // A <row> element with no cells, like a missing row in an .xls sheet
+            if (row.getWidth() == 0) return;
+            
+            if (plan[0] == null) {
+                // The first row of the sheet must be the header
+                if (row.getRowNumber() != 1) {
+                    throw new Exception("Header row not found");
+                }
+                plan[0] = compilePlan(headerNames(row));
+                return;
+            }
+            
+            SurveyResponse response;
             try {
-                workbook = new XSSFWorkbook(inputStream);
+                response = processRow(row, plan[0]);
             } catch (Exception e) {
-                // If XLSX fails, try XLS
-                workbook = new HSSFWorkbook(inputStream);
+                plan[0].rowFailed(handler, row.getRowNumber(), e.getMessage());
+                return;
             }
-            
-            Sheet sheet = workbook.getSheetAt(0); // Get first sheet
+            // Handler failures (such as cancellation) stop the parse
+            plan[0].emit(handler, row.getRowNumber(), response);
+        });
+        
+        if (plan[0] == null) {
+            throw new Exception("Header row not found");
+        }
+        plan[0].finish(handler);
+    }
+    
+    /**
+     * Read a workbook (.xls) into memory and walk one of its sheets
+     */
+    private void readWorkbook(File file, int sheetIndex, RowHandler handler) throws Exception {
+        try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
             
             // Find header row and map columns
             Row headerRow = sheet.getRow(0);
@@ -39,99 +172,324 @@ public class ExcelProcessor {
                 throw new Exception("Header row not found");
             }
             
-            ColumnMapping columnMapping = mapColumns(headerRow);
+            DecodingPlan plan = compilePlan(headerRow);
             
             // Process data rows
             for (int i = 1; i <= sheet.getLastRowNum(); i++) {
                 Row row = sheet.getRow(i);
                 if (row == null) continue;
                 
+                SurveyResponse response;
                 try {
-                    SurveyResponse response = processRow(row, columnMapping);
-                    if (response != null) {
-                        responses.add(response);
-                    }
+                    response = processRow(row, plan);
                 } catch (Exception e) {
-                    System.err.println("Error processing row " + (i + 1) + ": " + e.getMessage());
                     // Continue processing other rows
+                    plan.rowFailed(handler, i + 1, e.getMessage());
+                    continue;
                 }
+                // Handler failures (such as cancellation) stop the parse
+                plan.emit(handler, i + 1, response);
             }
-            
-            workbook.close();
-            
-        } catch (Exception e) {
-            throw new Exception("Error processing Excel file: " + e.getMessage(), e);
+            plan.finish(handler);
         }
-        
-        return responses;
     }
     
     /**
-     * Map Excel columns to survey fields
+     * Compile the decoding plan for a sheet from its header row
      */
-    private ColumnMapping mapColumns(Row headerRow) {
-        ColumnMapping mapping = new ColumnMapping();
+    private DecodingPlan compilePlan(Row headerRow) {
+        List<String> headerNames = new ArrayList<>();
         
         for (int i = 0; i < headerRow.getLastCellNum(); i++) {
             Cell cell = headerRow.getCell(i);
-            if (cell == null) continue;
+            headerNames.add(cell != null ? cell.getStringCellValue() : null);
+        }
+        
+        return compilePlan(headerNames);
+    }
+    
+    /**
+     * Collect header names from a streamed header row
+     */
+    private List<String> headerNames(XlsxStreamingReader.SheetRow headerRow) {
+        List<String> headerNames = new ArrayList<>();
+        for (int i = 0; i < headerRow.getWidth(); i++) {
+            headerNames.add(headerRow.getValue(i));
+        }
+        return headerNames;
+    }
+    
+    /**
+     * Collect header names from a CSV header record
+     */
+    private List<String> headerNames(CsvReader.CsvRow headerRow) {
+        List<String> headerNames = new ArrayList<>();
+        for (int i = 0; i < headerRow.getWidth(); i++) {
+            headerNames.add(headerRow.getValue(i));
+        }
+        return headerNames;
+    }
+    
+    /**
+     * Map header names (by column position) to survey fields, once per sheet or file
+     */
+    private DecodingPlan compilePlan(List<String> headerNames) {
+        DecodingPlan plan = new DecodingPlan();
+        
+        for (int i = 0; i < headerNames.size(); i++) {
+            String header = headerNames.get(i);
+            if (header == null) continue;
             
-            String columnName = cell.getStringCellValue().toLowerCase().trim();
+            String columnName = header.toLowerCase().trim();
             
             // Map column names to indices
             if (columnName.contains("date") || columnName.contains("timestamp")) {
-                mapping.dateColumn = i;
+                plan.dateColumn = i;
             } else if (columnName.contains("customer") && columnName.contains("id")) {
-                mapping.customerIdColumn = i;
+                plan.customerIdColumn = i;
             } else if (columnName.contains("food") && columnName.contains("quality")) {
-                mapping.foodQualityColumn = i;
+                plan.foodQualityColumn = i;
             } else if (columnName.contains("service") && columnName.contains("quality")) {
-                mapping.serviceQualityColumn = i;
+                plan.serviceQualityColumn = i;
             } else if (columnName.contains("hygiene")) {
-                mapping.hygieneColumn = i;
+                plan.hygieneColumn = i;
             } else if (columnName.contains("value") && columnName.contains("money")) {
-                mapping.valueForMoneyColumn = i;
+                plan.valueForMoneyColumn = i;
             } else if (columnName.contains("overall") && columnName.contains("satisfaction")) {
-                mapping.overallSatisfactionColumn = i;
+                plan.overallSatisfactionColumn = i;
             } else if (columnName.contains("comment")) {
-                mapping.commentsColumn = i;
+                plan.commentsColumn = i;
             } else if (columnName.contains("nps")) {
-                mapping.npsColumn = i;
+                plan.npsColumn = i;
             }
         }
         
-        return mapping;
+        return plan;
     }
     
     /**
      * Process individual row and create SurveyResponse
      */
-    private SurveyResponse processRow(Row row, ColumnMapping mapping) throws Exception {
+    private SurveyResponse processRow(Row row, DecodingPlan plan) throws Exception {
         SurveyResponse response = new SurveyResponse();
         
         // Extract data from cells
-        response.setSurveyDate(getDateValue(row, mapping.dateColumn));
-        response.setCustomerId(getStringValue(row, mapping.customerIdColumn));
-        response.setFoodQuality(getRatingValue(row, mapping.foodQualityColumn));
-        response.setServiceQuality(getRatingValue(row, mapping.serviceQualityColumn));
-        response.setHygiene(getRatingValue(row, mapping.hygieneColumn));
-        response.setValueForMoney(getRatingValue(row, mapping.valueForMoneyColumn));
-        response.setOverallSatisfaction(normalizeOverallSatisfaction(getStringValue(row, mapping.overallSatisfactionColumn)));
-        response.setComments(getStringValue(row, mapping.commentsColumn));
-        response.setNpsScore(getNpsValue(row, mapping.npsColumn));
+        response.setSurveyDate(getDateValue(row, plan.dateColumn, plan));
+        response.setCustomerId(getStringValue(row, plan.customerIdColumn));
+        response.setFoodQuality(getRatingValue(row, plan.foodQualityColumn, plan));
+        response.setServiceQuality(getRatingValue(row, plan.serviceQualityColumn, plan));
+        response.setHygiene(getRatingValue(row, plan.hygieneColumn, plan));
+        response.setValueForMoney(getRatingValue(row, plan.valueForMoneyColumn, plan));
+        response.setOverallSatisfaction(plan.text.satisfaction(getStringValue(row, plan.overallSatisfactionColumn)));
+        response.setComments(getStringValue(row, plan.commentsColumn));
+        response.setNpsScore(getNpsValue(row, plan.npsColumn));
+        
+        // Validate required fields
+        if (response.getCustomerId().isBlank()) {
+            throw new Exception("Customer ID is required");
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Process a streamed row and create SurveyResponse
+     */
+    private SurveyResponse processRow(XlsxStreamingReader.SheetRow row, DecodingPlan plan) throws Exception {
+        SurveyResponse response = new SurveyResponse();
+        
+        response.setSurveyDate(getDateValue(row, plan.dateColumn, plan));
+        response.setCustomerId(getStringValue(row, plan.customerIdColumn));
+        response.setFoodQuality(getRatingValue(row, plan.foodQualityColumn, plan));
+        response.setServiceQuality(getRatingValue(row, plan.serviceQualityColumn, plan));
+        response.setHygiene(getRatingValue(row, plan.hygieneColumn, plan));
+        response.setValueForMoney(getRatingValue(row, plan.valueForMoneyColumn, plan));
+        response.setOverallSatisfaction(plan.text.satisfaction(row.getValue(plan.overallSatisfactionColumn)));
+        response.setComments(getStringValue(row, plan.commentsColumn));
+        response.setNpsScore(getNpsValue(row, plan.npsColumn));
         
         // Validate required fields
-        if (response.getCustomerId() == null || response.getCustomerId().trim().isEmpty()) {
+        if (response.getCustomerId().isBlank()) {
             throw new Exception("Customer ID is required");
         }
         
         return response;
     }
     
+    /**
+     * Process a CSV record and create SurveyResponse
+     * Numbers and canonical satisfaction labels are read from the record bytes; only
+     * the customer id and comments are decoded into strings
+     */
+    private SurveyResponse processRow(CsvReader.CsvRow row, DecodingPlan plan) throws Exception {
+        SurveyResponse response = new SurveyResponse();
+        
+        response.setSurveyDate(getDateValue(row, plan.dateColumn, plan));
+        response.setCustomerId(getStringValue(row, plan.customerIdColumn));
+        response.setFoodQuality(getRatingValue(row, plan.foodQualityColumn, plan));
+        response.setServiceQuality(getRatingValue(row, plan.serviceQualityColumn, plan));
+        response.setHygiene(getRatingValue(row, plan.hygieneColumn, plan));
+        response.setValueForMoney(getRatingValue(row, plan.valueForMoneyColumn, plan));
+        response.setOverallSatisfaction(getSatisfactionValue(row, plan.overallSatisfactionColumn, plan));
+        response.setComments(getStringValue(row, plan.commentsColumn));
+        response.setNpsScore(getNpsValue(row, plan.npsColumn));
+        
+        // Validate required fields
+        if (response.getCustomerId().isBlank()) {
+            throw new Exception("Customer ID is required");
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Get date value from a CSV field
+     * ISO dates are read from the record bytes; anything else goes through the plan's date parser
+     */
+    private Date getDateValue(CsvReader.CsvRow row, int columnIndex, DecodingPlan plan) throws Exception {
+        LocalDate date = row.getIsoDate(columnIndex);
+        if (date != null) {
+            return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        if (row.isBlank(columnIndex)) return new Date();
+        
+        return plan.textDate(row.getValue(columnIndex));
+    }
+    
+    /**
+     * Get string value from a CSV field
+     */
+    private String getStringValue(CsvReader.CsvRow row, int columnIndex) {
+        String value = row.getValue(columnIndex);
+        return value != null ? value : "";
+    }
+    
+    /**
+     * Get rating value (1-5) from a CSV field
+     */
+    private int getRatingValue(CsvReader.CsvRow row, int columnIndex, DecodingPlan plan) {
+        if (row.isBlank(columnIndex)) return 3;
+        
+        Integer rating = row.getInteger(columnIndex);
+        if (rating != null) {
+            return Math.max(1, Math.min(5, rating));
+        }
+        return plan.text.rating(row.getValue(columnIndex));
+    }
+    
+    /**
+     * Get NPS score (0-10) from a CSV field
+     */
+    private int getNpsValue(CsvReader.CsvRow row, int columnIndex) {
+        Integer nps = row.getInteger(columnIndex);
+        if (nps == null) return 5; // Default neutral
+        
+        return Math.max(0, Math.min(10, nps));
+    }
+    
+    /**
+     * Get overall satisfaction from a CSV field, matching the canonical labels without decoding
+     */
+    private String getSatisfactionValue(CsvReader.CsvRow row, int columnIndex, DecodingPlan plan) {
+        for (String level : MetricTotals.SATISFACTION_LEVELS) {
+            if (row.equalsIgnoreCase(columnIndex, level)) {
+                return level;
+            }
+        }
+        return plan.text.satisfaction(row.getValue(columnIndex));
+    }
+    
+    /**
+     * Get date value from a streamed cell
+     */
+    private Date getDateValue(XlsxStreamingReader.SheetRow row, int columnIndex, DecodingPlan plan) throws Exception {
+        String value = row.getValue(columnIndex);
+        if (value == null) return new Date();
+        
+        if (!row.isNumeric(columnIndex)) {
+            return plan.textDate(value);
+        }
+        try {
+            // Excel date serial number
+            return DateUtil.getJavaDate(Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            System.err.println("Error parsing date: " + e.getMessage());
+        }
+        
+        return new Date();
+    }
+    
+    /**
+     * Get string value from a streamed cell
+     */
+    private String getStringValue(XlsxStreamingReader.SheetRow row, int columnIndex) {
+        String value = row.getValue(columnIndex);
+        if (value == null) return "";
+        
+        if (row.isNumeric(columnIndex)) {
+            if (wholeNumber(value) != null && value.indexOf('.') < 0) {
+                // Already written as an integer
+                return value;
+            }
+            try {
+                return String.valueOf((long) Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        return value;
+    }
+    
+    /**
+     * Get rating value (1-5) from a streamed cell
+     */
+    private int getRatingValue(XlsxStreamingReader.SheetRow row, int columnIndex, DecodingPlan plan) {
+        String value = row.getValue(columnIndex);
+        if (value == null) return 3;
+        
+        Integer rating = wholeNumber(value);
+        if (rating != null) {
+            return Math.max(1, Math.min(5, rating));
+        }
+        
+        try {
+            if (row.isNumeric(columnIndex)) {
+                return Math.max(1, Math.min(5, (int) Double.parseDouble(value)));
+            }
+            return plan.text.rating(value);
+        } catch (Exception e) {
+            System.err.println("Error parsing rating: " + e.getMessage());
+        }
+        
+        return 3;
+    }
+    
+    /**
+     * Get NPS score (0-10) from a streamed cell
+     */
+    private int getNpsValue(XlsxStreamingReader.SheetRow row, int columnIndex) {
+        String value = row.getValue(columnIndex);
+        if (value == null) return 5;
+        
+        Integer nps = wholeNumber(value);
+        if (nps != null) {
+            return Math.max(0, Math.min(10, nps));
+        }
+        
+        try {
+            int parsed = row.isNumeric(columnIndex)
+                ? (int) Double.parseDouble(value)
+                : Integer.parseInt(value.trim());
+            return Math.max(0, Math.min(10, parsed));
+        } catch (NumberFormatException e) {
+            return 5; // Default neutral
+        }
+    }
+    
     /**
      * Get date value from cell
      */
-    private Date getDateValue(Row row, int columnIndex) {
+    private Date getDateValue(Row row, int columnIndex, DecodingPlan plan) throws Exception {
         if (columnIndex == -1) return new Date(); // Default to current date
         
         Cell cell = row.getCell(columnIndex);
@@ -145,16 +503,15 @@ public class ExcelProcessor {
                     // Excel date serial number
                     return DateUtil.getJavaDate(cell.getNumericCellValue());
                 }
-            } else if (cell.getCellType() == CellType.STRING) {
-                // Try to parse string date
-                String dateStr = cell.getStringCellValue();
-                // Add date parsing logic here if needed
-                return new Date(); // Fallback to current date
             }
         } catch (Exception e) {
             System.err.println("Error parsing date: " + e.getMessage());
         }
         
+        if (cell.getCellType() == CellType.STRING) {
+            return plan.textDate(cell.getStringCellValue());
+        }
+        
         return new Date();
     }
     
@@ -189,7 +546,7 @@ public class ExcelProcessor {
     /**
      * Get rating value (1-5) from cell
      */
-    private int getRatingValue(Row row, int columnIndex) {
+    private int getRatingValue(Row row, int columnIndex, DecodingPlan plan) {
         if (columnIndex == -1) return 3; // Default neutral rating
         
         Cell cell = row.getCell(columnIndex);
@@ -206,7 +563,7 @@ public class ExcelProcessor {
                     return Math.max(1, Math.min(5, rating));
                 } catch (NumberFormatException e) {
                     // Try to parse text ratings
-                    return parseTextRating(ratingStr);
+                    return plan.text.rating(ratingStr);
                 }
             }
         } catch (Exception e) {
@@ -246,49 +603,52 @@ public class ExcelProcessor {
     }
     
     /**
-     * Parse text-based ratings
+     * Parse a whole number written with plain digits (optionally signed or with a zero fraction,
+     * e.g. "4" or "4.0") without going through Double.parseDouble
+     * @return the value, or null if the text is anything else
      */
-    private int parseTextRating(String text) {
-        text = text.toLowerCase().trim();
-        
-        if (text.contains("excellent") || text.contains("outstanding") || text.equals("5")) return 5;
-        if (text.contains("good") || text.contains("very good") || text.equals("4")) return 4;
-        if (text.contains("average") || text.contains("okay") || text.contains("fair") || text.equals("3")) return 3;
-        if (text.contains("poor") || text.contains("below average") || text.equals("2")) return 2;
-        if (text.contains("terrible") || text.contains("very poor") || text.equals("1")) return 1;
-        
-        return 3; // Default neutral
-    }
-    
-    /**
-     * Normalize overall satisfaction values
-     */
-    private String normalizeOverallSatisfaction(String satisfaction) {
-        if (satisfaction == null || satisfaction.trim().isEmpty()) {
-            return "Neutral";
+    private static Integer wholeNumber(String value) {
+        int i = 0;
+        int end = value.length();
+        boolean negative = false;
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            negative = value.charAt(i) == '-';
+            i++;
         }
         
-        satisfaction = satisfaction.toLowerCase().trim();
-        
-        if (satisfaction.contains("highly satisfied") || satisfaction.contains("excellent") || satisfaction.contains("very satisfied")) {
-            return "Highly Satisfied";
-        } else if (satisfaction.contains("satisfied") || satisfaction.contains("good")) {
-            return "Satisfied";
-        } else if (satisfaction.contains("neutral") || satisfaction.contains("average") || satisfaction.contains("okay")) {
-            return "Neutral";
-        } else if (satisfaction.contains("dissatisfied") || satisfaction.contains("poor")) {
-            return "Dissatisfied";
-        } else if (satisfaction.contains("highly dissatisfied") || satisfaction.contains("terrible") || satisfaction.contains("very poor")) {
-            return "Highly Dissatisfied";
+        int digitsStart = i;
+        int result = 0;
+        while (i < end && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+            result = result * 10 + (value.charAt(i) - '0');
+            i++;
         }
+        int digits = i - digitsStart;
+        if (digits == 0 || digits > 9) return null;
         
-        return "Neutral";
+        if (i < end && value.charAt(i) == '.') {
+            i++;
+            while (i < end && value.charAt(i) == '0') i++;
+        }
+        if (i != end) return null;
+        return negative ? -result : result;
     }
     
     /**
-     * Inner class to map column indices
+     * Decoding plan for one sheet or CSV file, compiled once from its header row:
+     * the column of each survey field and the text and date parsers shared by all of its rows
+     * From the first text date on, rows and row errors are held back in order until the
+     * column's date format has been detected, so they are still reported in sheet order
      */
-    private static class ColumnMapping {
+    private static class DecodingPlan {
+        // Rows held before the format is settled from the samples seen so far,
+        // for columns where text dates are rare among serial-number dates
+        private static final int MAX_HELD_ROWS = 50 * SurveyDateParser.SAMPLE_SIZE;
+        
+        final SurveyTextLookup text = new SurveyTextLookup();
+        final SurveyDateParser dates = new SurveyDateParser();
+        private final List<PendingRow> pending = new ArrayList<>();
+        // Date text of the row being decoded, while its date waits for format detection
+        private String deferredDate;
         int dateColumn = -1;
         int customerIdColumn = -1;
         int foodQualityColumn = -1;
@@ -298,5 +658,107 @@ public class ExcelProcessor {
         int overallSatisfactionColumn = -1;
         int commentsColumn = -1;
         int npsColumn = -1;
+        
+        /**
+         * Date for a text date cell; while the format is still being detected the text is
+         * kept for the row and null is returned
+         */
+        Date textDate(String text) throws Exception {
+            if (text.isBlank()) return new Date(); // Default to current date, as for a missing cell
+            
+            if (dates.isDetecting()) {
+                dates.addSample(text);
+                deferredDate = text;
+                return null;
+            }
+            
+            Date date = dates.parse(text);
+            if (date == null) {
+                throw new Exception("Invalid survey date: " + text.trim());
+            }
+            return date;
+        }
+        
+        /**
+         * Pass a decoded row on, or hold it back while earlier rows wait for format detection
+         */
+        void emit(RowHandler handler, long rowNumber, SurveyResponse response) throws Exception {
+            if (deferredDate == null && pending.isEmpty()) {
+                handler.onRow(rowNumber, response);
+                return;
+            }
+            
+            pending.add(new PendingRow(rowNumber, response, deferredDate, null));
+            deferredDate = null;
+            flushIfSettled(handler);
+        }
+        
+        /**
+         * Report a row error, after any rows still held back
+         */
+        void rowFailed(RowHandler handler, long rowNumber, String message) throws Exception {
+            deferredDate = null;
+            if (pending.isEmpty()) {
+                handler.onError(rowNumber, message);
+                return;
+            }
+            
+            pending.add(new PendingRow(rowNumber, null, null, message));
+            flushIfSettled(handler);
+        }
+        
+        /**
+         * End of the sheet: settle the date format from whatever samples there were and release held rows
+         */
+        void finish(RowHandler handler) throws Exception {
+            dates.detect();
+            flush(handler);
+        }
+        
+        private void flushIfSettled(RowHandler handler) throws Exception {
+            if (pending.size() >= MAX_HELD_ROWS) {
+                dates.detect();
+            }
+            if (!dates.isDetecting()) {
+                flush(handler);
+            }
+        }
+        
+        private void flush(RowHandler handler) throws Exception {
+            for (PendingRow row : pending) {
+                if (row.error != null) {
+                    handler.onError(row.rowNumber, row.error);
+                    continue;
+                }
+                if (row.dateText != null) {
+                    Date date = dates.parse(row.dateText);
+                    if (date == null) {
+                        handler.onError(row.rowNumber, "Invalid survey date: " + row.dateText.trim());
+                        continue;
+                    }
+                    row.response.setSurveyDate(date);
+                }
+                handler.onRow(row.rowNumber, row.response);
+            }
+            pending.clear();
+        }
+    }
+    
+    /**
+     * A row held back during date detection: a decoded response (with its date text when
+     * the date is still unparsed) or the error reported for it
+     */
+    private static class PendingRow {
+        final long rowNumber;
+        final SurveyResponse response;
+        final String dateText;
+        final String error;
+        
+        PendingRow(long rowNumber, SurveyResponse response, String dateText, String error) {
+            this.rowNumber = rowNumber;
+            this.response = response;
+            this.dateText = dateText;
+            this.error = error;
+        }
     }
 } 
\ No newline at end of file
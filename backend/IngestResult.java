@@ -0,0 +1,225 @@
+package com.customerdashboard.backend;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * IngestResult collects processed/saved/duplicate/failed counts for a survey upload
+ * Counters are thread-safe so progress can be read while ingestion is running.
+ * Uploads with several files or sheets keep one source result per sheet whose
+ * counts and errors also roll up into the upload's result
+ */
+public class IngestResult {
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong saved = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<RowError> errors = new ArrayList<>();
+    private final List<IngestResult> sources = new ArrayList<>();
+
+    // Set on per-source results only
+    private final IngestResult parent;
+    private final String fileName;
+    private final String sheetName;
+    private volatile String error;
+
+    public IngestResult() {
+        this(null, null, null);
+    }
+
+    private IngestResult(IngestResult parent, String fileName, String sheetName) {
+        this.parent = parent;
+        this.fileName = fileName;
+        this.sheetName = sheetName;
+    }
+
+    /**
+     * Add a result for one file or sheet of this upload
+     * @param sheetName null for sources without sheets (CSV)
+     */
+    public IngestResult addSource(String fileName, String sheetName) {
+        IngestResult source = new IngestResult(this, fileName, sheetName);
+        synchronized (sources) {
+            sources.add(source);
+        }
+        return source;
+    }
+
+    public void addProcessed(long count) {
+        processed.addAndGet(count);
+        if (parent != null) {
+            parent.addProcessed(count);
+        }
+    }
+
+    public void addSaved(long count) {
+        saved.addAndGet(count);
+        if (parent != null) {
+            parent.addSaved(count);
+        }
+    }
+
+    /**
+     * Count rows skipped because an identical row was already saved
+     */
+    public void addDuplicates(long count) {
+        duplicates.addAndGet(count);
+        if (parent != null) {
+            parent.addDuplicates(count);
+        }
+    }
+
+    /**
+     * Record a row that could not be parsed or saved
+     */
+    public void addFailure(long rowNumber, String message) {
+        addFailure(new RowError(rowNumber, message, fileName, sheetName));
+    }
+
+    private void addFailure(RowError rowError) {
+        failed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(rowError);
+            }
+        }
+        if (parent != null) {
+            parent.addFailure(rowError);
+        }
+    }
+
+    /**
+     * Record that a source could not be read (the rest of the upload carries on)
+     */
+    public void setError(String message) {
+        error = message;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getSaved() {
+        return saved.get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public List<RowError> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    /**
+     * Add recordsProcessed/recordsSaved/duplicatesSkipped/recordsFailed, per-source counts and the
+     * first row errors to a JSON response
+     */
+    public void writeTo(JsonObject json) {
+        json.addProperty("recordsProcessed", getProcessed());
+        json.addProperty("recordsSaved", getSaved());
+        json.addProperty("duplicatesSkipped", getDuplicates());
+        json.addProperty("recordsFailed", getFailed());
+        writeSources(json);
+
+        List<RowError> rowErrors = getErrors();
+        if (!rowErrors.isEmpty()) {
+            JsonArray errorArray = new JsonArray();
+            for (RowError error : rowErrors) {
+                JsonObject errorJson = new JsonObject();
+                if (error.getFileName() != null) {
+                    errorJson.addProperty("file", error.getFileName());
+                }
+                if (error.getSheetName() != null) {
+                    errorJson.addProperty("sheet", error.getSheetName());
+                }
+                errorJson.addProperty("row", error.getRowNumber());
+                errorJson.addProperty("error", error.getMessage());
+                errorArray.add(errorJson);
+            }
+            json.add("errors", errorArray);
+        }
+    }
+
+    /**
+     * Add the per-file/per-sheet counts, if this upload has sources
+     */
+    public void writeSources(JsonObject json) {
+        List<IngestResult> snapshot;
+        synchronized (sources) {
+            if (sources.isEmpty()) return;
+            snapshot = new ArrayList<>(sources);
+        }
+
+        JsonArray sourceArray = new JsonArray();
+        for (IngestResult source : snapshot) {
+            JsonObject sourceJson = new JsonObject();
+            sourceJson.addProperty("file", source.fileName);
+            if (source.sheetName != null) {
+                sourceJson.addProperty("sheet", source.sheetName);
+            }
+            sourceJson.addProperty("recordsProcessed", source.getProcessed());
+            sourceJson.addProperty("recordsSaved", source.getSaved());
+            sourceJson.addProperty("duplicatesSkipped", source.getDuplicates());
+            sourceJson.addProperty("recordsFailed", source.getFailed());
+            if (source.error != null) {
+                sourceJson.addProperty("error", source.error);
+            }
+            sourceArray.add(sourceJson);
+        }
+        json.add("sources", sourceArray);
+    }
+
+    /**
+     * A single rejected row
+     */
+    public static class RowError {
+        private final long rowNumber;
+        private final String message;
+        private final String fileName;
+        private final String sheetName;
+
+        public RowError(long rowNumber, String message) {
+            this(rowNumber, message, null, null);
+        }
+
+        public RowError(long rowNumber, String message, String fileName, String sheetName) {
+            this.rowNumber = rowNumber;
+            this.message = message;
+            this.fileName = fileName;
+            this.sheetName = sheetName;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getSheetName() {
+            return sheetName;
+        }
+
+        public long getRowNumber() {
+            return rowNumber;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
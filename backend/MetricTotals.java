@@ -0,0 +1,129 @@
+package com.customerdashboard.backend;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.JsonObject;
+
+/**
+ * MetricTotals holds additive survey totals (counts and sums)
+ * Totals for separate days or segments can be summed, and every dashboard KPI
+ * (averages, satisfaction rate, NPS, distribution) is derived from them
+ */
+public class MetricTotals {
+    public static final String[] SATISFACTION_LEVELS = {
+        "Highly Satisfied", "Satisfied", "Neutral", "Dissatisfied", "Highly Dissatisfied"
+    };
+
+    long responseCount;
+    long satisfactionSum;
+    long foodQualitySum;
+    long serviceQualitySum;
+    long hygieneSum;
+    long valueForMoneySum;
+    long npsSum;
+    long npsCount;
+    long promoterCount;
+    long detractorCount;
+    // Response count per overall_satisfaction label
+    final Map<String, Long> distribution = new LinkedHashMap<>();
+
+    /**
+     * Add one response
+     */
+    public void add(int foodQuality, int serviceQuality, int hygiene, int valueForMoney,
+                    String overallSatisfaction, Integer npsScore) {
+        responseCount++;
+        satisfactionSum += SurveyResponse.satisfactionScore(overallSatisfaction);
+        foodQualitySum += foodQuality;
+        serviceQualitySum += serviceQuality;
+        hygieneSum += hygiene;
+        valueForMoneySum += valueForMoney;
+        if (npsScore != null) {
+            npsSum += npsScore;
+            npsCount++;
+            if (npsScore >= 9) promoterCount++;
+            if (npsScore <= 6) detractorCount++;
+        }
+        distribution.merge(String.valueOf(overallSatisfaction), 1L, Long::sum);
+    }
+
+    /**
+     * Add another set of totals into this one
+     */
+    public void add(MetricTotals other) {
+        responseCount += other.responseCount;
+        satisfactionSum += other.satisfactionSum;
+        foodQualitySum += other.foodQualitySum;
+        serviceQualitySum += other.serviceQualitySum;
+        hygieneSum += other.hygieneSum;
+        valueForMoneySum += other.valueForMoneySum;
+        npsSum += other.npsSum;
+        npsCount += other.npsCount;
+        promoterCount += other.promoterCount;
+        detractorCount += other.detractorCount;
+        for (Map.Entry<String, Long> entry : other.distribution.entrySet()) {
+            distribution.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+    }
+
+    public MetricTotals copy() {
+        MetricTotals copy = new MetricTotals();
+        copy.add(this);
+        return copy;
+    }
+
+    public long getResponseCount() {
+        return responseCount;
+    }
+
+    public long getSatisfiedCount() {
+        return distribution.getOrDefault("Satisfied", 0L) + distribution.getOrDefault("Highly Satisfied", 0L);
+    }
+
+    /**
+     * Percentage of responses that are Satisfied or Highly Satisfied
+     */
+    public double getSatisfactionRate() {
+        return responseCount > 0 ? (double) getSatisfiedCount() / responseCount * 100 : 0;
+    }
+
+    /**
+     * Net Promoter Score (promoters minus detractors, as a percentage), or null with no NPS answers
+     */
+    public Double getNpsScore() {
+        return npsCount > 0 ? (double) (promoterCount - detractorCount) / npsCount * 100 : null;
+    }
+
+    /**
+     * Add totalResponses and the avg* fields used by /analytics
+     */
+    public void writeAverages(JsonObject json) {
+        json.addProperty("totalResponses", responseCount);
+        json.addProperty("avgSatisfaction", average(satisfactionSum, responseCount));
+        json.addProperty("avgFoodQuality", average(foodQualitySum, responseCount));
+        json.addProperty("avgServiceQuality", average(serviceQualitySum, responseCount));
+        json.addProperty("avgHygiene", average(hygieneSum, responseCount));
+        json.addProperty("avgValueForMoney", average(valueForMoneySum, responseCount));
+        json.addProperty("avgNPS", average(npsSum, npsCount));
+    }
+
+    /**
+     * Satisfaction label to response count
+     */
+    public JsonObject distributionJson() {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, Long> entry : distribution.entrySet()) {
+            json.addProperty(entry.getKey(), entry.getValue());
+        }
+        return json;
+    }
+
+    public double getAverageSatisfaction() {
+        return average(satisfactionSum, responseCount);
+    }
+
+    static double average(long sum, long count) {
+        return count > 0 ? (double) sum / count : 0;
+    }
+}
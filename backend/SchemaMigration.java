@@ -0,0 +1,35 @@
+package com.customerdashboard.backend;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SchemaMigration is one versioned, ordered set of DDL statements
+ * Applied once per database and recorded in the schema_version table. Statements are
+ * not applied atomically (DDL auto-commits), so each must be safe to run again after
+ * a partial failure: "already exists" errors are skipped, anything else must be repeatable
+ */
+public class SchemaMigration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+
+    public SchemaMigration(int version, String description, String... statements) {
+        this.version = version;
+        this.description = description;
+        this.statements = Collections.unmodifiableList(Arrays.asList(statements));
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<String> getStatements() {
+        return statements;
+    }
+}
@@ -0,0 +1,57 @@
+package com.customerdashboard.backend;
+
+/**
+ * ScoreHistogram counts integer scores in a fixed range for percentile queries
+ * Survey scores have only a handful of possible values, so one counter per value
+ * is smaller than a general quantile digest and gives exact, mergeable percentiles
+ */
+public class ScoreHistogram {
+    private final long[] counts;
+    private long total;
+
+    /**
+     * @param maxScore highest score recorded; scores run from 0 to maxScore
+     */
+    public ScoreHistogram(int maxScore) {
+        counts = new long[maxScore + 1];
+    }
+
+    /**
+     * Record one score; values outside the range are clamped to it
+     */
+    public void add(int score) {
+        counts[Math.max(0, Math.min(counts.length - 1, score))]++;
+        total++;
+    }
+
+    /**
+     * Fold another histogram with the same range into this one
+     */
+    public void merge(ScoreHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    /**
+     * Nearest-rank percentile (0 < fraction <= 1), or null if nothing was recorded
+     */
+    public Integer percentile(double fraction) {
+        if (total == 0) return null;
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int score = 0; score < counts.length; score++) {
+            seen += counts[score];
+            if (seen >= rank) {
+                return score;
+            }
+        }
+        return counts.length - 1;
+    }
+}
@@ -0,0 +1,94 @@
+package com.customerdashboard.backend;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SurveyAggregates keeps running totals over survey_responses in memory
+ * Seeded once from the database, then updated on every insert so analytics reads
+ * do not depend on table size
+ */
+public class SurveyAggregates {
+    private MetricTotals totals = new MetricTotals();
+    // Per-month totals keyed by calendar month
+    private final TreeMap<YearMonth, MetricTotals> months = new TreeMap<>();
+
+    /**
+     * Load the aggregates from all existing survey responses
+     */
+    public void seed(DatabaseManager dbManager) throws SQLException {
+        String sql = """
+            SELECT survey_date, food_quality, service_quality, hygiene,
+                   value_for_money, overall_satisfaction, nps_score
+            FROM survey_responses
+        """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(1000);
+
+            synchronized (this) {
+                totals = new MetricTotals();
+                months.clear();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp surveyDate = rs.getTimestamp("survey_date");
+                        int nps = rs.getInt("nps_score");
+                        Integer npsScore = rs.wasNull() ? null : nps;
+                        record(surveyDate, rs.getInt("food_quality"), rs.getInt("service_quality"),
+                               rs.getInt("hygiene"), rs.getInt("value_for_money"),
+                               rs.getString("overall_satisfaction"), npsScore);
+                    }
+                }
+            }
+        }
+
+        System.out.println("Survey aggregates seeded with " + totals.getResponseCount() + " responses");
+    }
+
+    /**
+     * Add a newly inserted survey response
+     */
+    public void record(SurveyResponse response) {
+        record(response.getSurveyDate(), response.getFoodQuality(), response.getServiceQuality(),
+               response.getHygiene(), response.getValueForMoney(),
+               response.getOverallSatisfaction(), response.getNpsScore());
+    }
+
+    private synchronized void record(Date surveyDate, int foodQuality, int serviceQuality, int hygiene,
+                                     int valueForMoney, String overallSatisfaction, Integer npsScore) {
+        totals.add(foodQuality, serviceQuality, hygiene, valueForMoney, overallSatisfaction, npsScore);
+
+        if (surveyDate != null) {
+            YearMonth month = YearMonth.from(surveyDate.toInstant().atZone(ZoneId.systemDefault()));
+            months.computeIfAbsent(month, m -> new MetricTotals())
+                  .add(foodQuality, serviceQuality, hygiene, valueForMoney, overallSatisfaction, npsScore);
+        }
+    }
+
+    /**
+     * Copy of the all-time totals
+     */
+    public synchronized MetricTotals getTotals() {
+        return totals.copy();
+    }
+
+    /**
+     * Copies of the per-month totals from firstMonth onwards
+     */
+    public synchronized TreeMap<YearMonth, MetricTotals> getMonthlyTotals(YearMonth firstMonth) {
+        TreeMap<YearMonth, MetricTotals> copy = new TreeMap<>();
+        for (Map.Entry<YearMonth, MetricTotals> entry : months.tailMap(firstMonth, true).entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+}
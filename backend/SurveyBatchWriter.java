@@ -0,0 +1,293 @@
+package com.customerdashboard.backend;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * SurveyBatchWriter inserts survey responses with JDBC batches
+ * Each chunk of db.batch.size rows is one batch in one transaction; rows the
+ * database rejects are reported and skipped while the rest of the chunk is saved.
+ * Every row is saved with its content fingerprint, and rows identical to one
+ * already saved are counted as duplicates instead of being inserted again
+ */
+public class SurveyBatchWriter {
+    private static final String INSERT_SQL = """
+        INSERT INTO survey_responses
+        (customer_id, survey_date, food_quality, service_quality, hygiene,
+         value_for_money, overall_satisfaction, comments, nps_score, row_fingerprint)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private final DatabaseManager dbManager;
+    private final int batchSize;
+    // Prefilter for rows that may already be saved; without one, duplicates are caught by the unique index
+    private final SurveyDeduplicator deduplicator;
+    // Notified with the rows of every committed chunk
+    private final List<Consumer<List<SurveyResponse>>> commitListeners = new CopyOnWriteArrayList<>();
+
+    public SurveyBatchWriter(DatabaseManager dbManager, SurveyDeduplicator deduplicator) {
+        this(dbManager, dbManager.getIntProperty("db.batch.size", 500), deduplicator);
+    }
+
+    public SurveyBatchWriter(DatabaseManager dbManager, int batchSize, SurveyDeduplicator deduplicator) {
+        this.dbManager = dbManager;
+        this.batchSize = Math.max(1, batchSize);
+        this.deduplicator = deduplicator;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Register a callback that receives the rows of each committed chunk
+     */
+    public void addCommitListener(Consumer<List<SurveyResponse>> listener) {
+        commitListeners.add(listener);
+    }
+
+    /**
+     * Save one chunk on a pooled connection; its rows may come from different sources
+     * rowNumbers[i] is the upload row number of chunk.get(i), used in error reports, and
+     * results[i] receives its saved count or failure
+     */
+    public void writeChunk(List<SurveyResponse> chunk, long[] rowNumbers, IngestResult[] results) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            writeChunk(conn, chunk, rowNumbers, results);
+        }
+    }
+
+    private void writeChunk(Connection conn, List<SurveyResponse> chunk, long[] rowNumbers, IngestResult[] results)
+            throws SQLException {
+        if (chunk.isEmpty()) return;
+
+        String[] fingerprints = new String[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            fingerprints[i] = SurveyDeduplicator.fingerprint(chunk.get(i));
+        }
+
+        // Indices into chunk that are still to be inserted
+        List<Integer> pending = removeDuplicates(conn, fingerprints, results);
+        if (pending.isEmpty()) return;
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            while (!pending.isEmpty()) {
+                try {
+                    for (int index : pending) {
+                        bind(stmt, chunk.get(index), fingerprints[index]);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    conn.commit();
+
+                    List<SurveyResponse> committed = new ArrayList<>(pending.size());
+                    for (int index : pending) {
+                        committed.add(chunk.get(index));
+                    }
+                    addSaved(results, pending);
+                    recordFingerprints(fingerprints, pending);
+                    notifyCommitted(committed);
+                    return;
+
+                } catch (BatchUpdateException e) {
+                    conn.rollback();
+                    stmt.clearBatch();
+
+                    List<Integer> rejected = findRejected(e, pending);
+                    if (rejected.isEmpty()) {
+                        // Driver gave no usable update counts; isolate failures row by row
+                        writeRowByRow(conn, stmt, chunk, fingerprints, pending, rowNumbers, results);
+                        return;
+                    }
+
+                    List<SQLException> causes = chainedExceptions(e);
+                    for (int i = 0; i < rejected.size(); i++) {
+                        int index = rejected.get(i);
+                        SQLException cause = i < causes.size() ? causes.get(i) : e;
+                        if (SurveyDeduplicator.isDuplicateKey(cause)) {
+                            // Saved by a concurrent upload since the duplicate check
+                            results[index].addDuplicates(1);
+                        } else {
+                            results[index].addFailure(rowNumbers[index], firstLine(cause.getMessage()));
+                        }
+                    }
+                    pending.removeAll(rejected);
+                }
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Work out which pending rows a failed batch rejected
+     * Drivers either report EXECUTE_FAILED per row or stop at the first failure
+     */
+    private List<Integer> findRejected(BatchUpdateException e, List<Integer> pending) {
+        List<Integer> rejected = new ArrayList<>();
+        int[] counts = e.getUpdateCounts();
+        if (counts == null) {
+            return rejected;
+        }
+
+        if (counts.length < pending.size()) {
+            rejected.add(pending.get(counts.length));
+        } else {
+            for (int i = 0; i < pending.size(); i++) {
+                if (counts[i] == Statement.EXECUTE_FAILED) {
+                    rejected.add(pending.get(i));
+                }
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Fallback: insert rows individually inside the chunk transaction
+     */
+    private void writeRowByRow(Connection conn, PreparedStatement stmt, List<SurveyResponse> chunk,
+                               String[] fingerprints, List<Integer> pending, long[] rowNumbers,
+                               IngestResult[] results) throws SQLException {
+        List<SurveyResponse> committed = new ArrayList<>(pending.size());
+        List<Integer> committedIndices = new ArrayList<>(pending.size());
+        for (int index : pending) {
+            SurveyResponse response = chunk.get(index);
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                bind(stmt, response, fingerprints[index]);
+                stmt.executeUpdate();
+                committed.add(response);
+                committedIndices.add(index);
+            } catch (SQLException e) {
+                conn.rollback(savepoint);
+                if (SurveyDeduplicator.isDuplicateKey(e)) {
+                    results[index].addDuplicates(1);
+                } else {
+                    results[index].addFailure(rowNumbers[index], firstLine(e.getMessage()));
+                }
+            }
+        }
+        conn.commit();
+        addSaved(results, committedIndices);
+        recordFingerprints(fingerprints, committedIndices);
+        notifyCommitted(committed);
+    }
+
+    /**
+     * Drop rows repeated within the chunk or already saved, counting them as duplicates
+     * Only rows the filter flags are looked up, with one query for the whole chunk
+     * @return indices of the rows still to insert
+     */
+    private List<Integer> removeDuplicates(Connection conn, String[] fingerprints, IngestResult[] results)
+            throws SQLException {
+        Set<String> seen = new HashSet<>();
+        List<Integer> unique = new ArrayList<>(fingerprints.length);
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (!seen.add(fingerprints[i])) {
+                results[i].addDuplicates(1);
+                continue;
+            }
+            unique.add(i);
+            if (deduplicator != null && deduplicator.mightContain(fingerprints[i])) {
+                candidates.add(fingerprints[i]);
+            }
+        }
+        if (candidates.isEmpty()) return unique;
+
+        Set<String> existing = deduplicator.findExisting(conn, candidates);
+        List<Integer> pending = new ArrayList<>(unique.size());
+        for (int index : unique) {
+            if (existing.contains(fingerprints[index])) {
+                results[index].addDuplicates(1);
+            } else {
+                pending.add(index);
+            }
+        }
+        return pending;
+    }
+
+    private void recordFingerprints(String[] fingerprints, List<Integer> committedIndices) {
+        if (deduplicator == null || committedIndices.isEmpty()) return;
+
+        List<String> saved = new ArrayList<>(committedIndices.size());
+        for (int index : committedIndices) {
+            saved.add(fingerprints[index]);
+        }
+        deduplicator.recordSaved(saved);
+    }
+
+    /**
+     * Credit saved rows to their results, one update per run of rows from the same source
+     */
+    private static void addSaved(IngestResult[] results, List<Integer> indices) {
+        IngestResult current = null;
+        long count = 0;
+        for (int index : indices) {
+            if (results[index] != current) {
+                if (current != null) current.addSaved(count);
+                current = results[index];
+                count = 0;
+            }
+            count++;
+        }
+        if (current != null) current.addSaved(count);
+    }
+
+    private void bind(PreparedStatement stmt, SurveyResponse response, String fingerprint) throws SQLException {
+        stmt.setString(1, response.getCustomerId());
+        stmt.setTimestamp(2, new Timestamp(response.getSurveyDate().getTime()));
+        stmt.setInt(3, response.getFoodQuality());
+        stmt.setInt(4, response.getServiceQuality());
+        stmt.setInt(5, response.getHygiene());
+        stmt.setInt(6, response.getValueForMoney());
+        stmt.setString(7, response.getOverallSatisfaction());
+        stmt.setString(8, response.getComments());
+        stmt.setInt(9, response.getNpsScore());
+        stmt.setString(10, fingerprint);
+    }
+
+    private void notifyCommitted(List<SurveyResponse> committed) {
+        if (committed.isEmpty()) return;
+
+        for (Consumer<List<SurveyResponse>> listener : commitListeners) {
+            try {
+                listener.accept(committed);
+            } catch (RuntimeException e) {
+                System.err.println("Error in survey commit listener: " + e.getMessage());
+            }
+        }
+    }
+
+    private static List<SQLException> chainedExceptions(SQLException e) {
+        List<SQLException> causes = new ArrayList<>();
+        SQLException next = e.getNextException();
+        while (next != null) {
+            causes.add(next);
+            next = next.getNextException();
+        }
+        return causes;
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) return "Unknown database error";
+        int newline = message.indexOf('\n');
+        return newline >= 0 ? message.substring(0, newline).trim() : message;
+    }
+}
@@ -0,0 +1,102 @@
+package com.customerdashboard.backend;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * SurveyDailyTotals keeps additive totals for each survey day in memory
+ * Loaded once from survey_responses and updated on every insert, so date-ranged
+ * analytics and trend buckets are folded from one entry per day with data
+ * instead of reading rows or waiting for the daily rollups to catch up
+ */
+public class SurveyDailyTotals {
+    private TreeMap<LocalDate, MetricTotals> days = new TreeMap<>();
+
+    /**
+     * Load every row of survey_responses, replacing the current totals
+     */
+    public void load(DatabaseManager dbManager) throws SQLException {
+        String sql = """
+            SELECT survey_date, food_quality, service_quality, hygiene,
+                   value_for_money, overall_satisfaction, nps_score
+            FROM survey_responses
+        """;
+
+        long loaded = 0;
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(1000);
+
+            synchronized (this) {
+                days = new TreeMap<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp surveyDate = rs.getTimestamp("survey_date");
+                        int nps = rs.getInt("nps_score");
+                        Integer npsScore = rs.wasNull() ? null : nps;
+                        record(surveyDate, rs.getInt("food_quality"), rs.getInt("service_quality"),
+                               rs.getInt("hygiene"), rs.getInt("value_for_money"),
+                               rs.getString("overall_satisfaction"), npsScore);
+                        loaded++;
+                    }
+                }
+            }
+        }
+
+        System.out.println("Survey daily totals loaded " + loaded + " responses over " + days.size() + " days");
+    }
+
+    /**
+     * Add a newly inserted survey response
+     */
+    public void record(SurveyResponse response) {
+        record(response.getSurveyDate(), response.getFoodQuality(), response.getServiceQuality(),
+               response.getHygiene(), response.getValueForMoney(),
+               response.getOverallSatisfaction(), response.getNpsScore());
+    }
+
+    private synchronized void record(Date surveyDate, int foodQuality, int serviceQuality, int hygiene,
+                                     int valueForMoney, String overallSatisfaction, Integer npsScore) {
+        Date date = surveyDate != null ? surveyDate : new Date();
+        LocalDate day = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        days.computeIfAbsent(day, d -> new MetricTotals())
+            .add(foodQuality, serviceQuality, hygiene, valueForMoney, overallSatisfaction, npsScore);
+    }
+
+    /**
+     * Totals for rows dated from..to (inclusive), grouped by calendar month
+     */
+    public TreeMap<YearMonth, MetricTotals> monthlyTotalsBetween(LocalDate from, LocalDate to) {
+        TreeMap<YearMonth, MetricTotals> months = new TreeMap<>();
+        for (Map.Entry<LocalDate, MetricTotals> entry : bucketTotalsBetween(from, to, d -> d.withDayOfMonth(1)).entrySet()) {
+            months.put(YearMonth.from(entry.getKey()), entry.getValue());
+        }
+        return months;
+    }
+
+    /**
+     * Totals for rows dated from..to (inclusive), grouped into consecutive time buckets
+     * @param bucketStart maps a date to the first day of its bucket
+     * @return non-empty buckets keyed by their first day
+     */
+    public synchronized TreeMap<LocalDate, MetricTotals> bucketTotalsBetween(LocalDate from, LocalDate to,
+                                                                             UnaryOperator<LocalDate> bucketStart) {
+        TreeMap<LocalDate, MetricTotals> buckets = new TreeMap<>();
+        if (from.isAfter(to)) return buckets;
+
+        for (Map.Entry<LocalDate, MetricTotals> day : days.subMap(from, true, to, true).entrySet()) {
+            buckets.computeIfAbsent(bucketStart.apply(day.getKey()), d -> new MetricTotals()).add(day.getValue());
+        }
+        return buckets;
+    }
+}
@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 /**
  * SurveyDatabaseManager extends DatabaseManager to include survey-specific tables
@@ -60,7 +61,7 @@ public class SurveyDatabaseManager extends DatabaseManager {
                     avg_hygiene DECIMAL(3,2),
                     avg_value_for_money DECIMAL(3,2),
                     created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    UNIQUE KEY unique_date (calculation_date)
+                    CONSTRAINT unique_date UNIQUE (calculation_date)
                 )
             """;
             stmt.execute(createSurveyAnalyticsTable);
@@ -83,6 +84,65 @@ public class SurveyDatabaseManager extends DatabaseManager {
         }
     }
     
+    @Override
+    protected List<SchemaMigration> getMigrations() {
+        List<SchemaMigration> migrations = super.getMigrations();
+        
+        migrations.add(new SchemaMigration(1, "Indexes for survey_responses read paths",
+            // Keyset pagination of survey listings
+            "CREATE INDEX idx_survey_date_id ON survey_responses (survey_date, survey_id)",
+            // Listings filtered by rating, and satisfaction distribution grouping
+            "CREATE INDEX idx_survey_satisfaction_date_id ON survey_responses (overall_satisfaction, survey_date, survey_id)",
+            // NPS promoter/detractor counts
+            "CREATE INDEX idx_survey_nps ON survey_responses (nps_score)",
+            // Covering index for date-range metrics: every column the aggregates read, led by the range column
+            "CREATE INDEX idx_survey_date_covering ON survey_responses " +
+            "(survey_date, overall_satisfaction, nps_score, food_quality, service_quality, hygiene, value_for_money)"
+        ));
+        
+        migrations.add(new SchemaMigration(2, "Additive daily rollup columns for survey_analytics",
+            // Sums and counts so day rows can be added up over any date range
+            "ALTER TABLE survey_analytics ADD COLUMN satisfaction_sum BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN highly_satisfied_count BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN satisfied_count BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN neutral_count BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN dissatisfied_count BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN highly_dissatisfied_count BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN food_quality_sum BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN service_quality_sum BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN hygiene_sum BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN value_for_money_sum BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN nps_sum BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN nps_count BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN promoter_count BIGINT DEFAULT 0",
+            "ALTER TABLE survey_analytics ADD COLUMN detractor_count BIGINT DEFAULT 0",
+            // Old rows were whole-table snapshots, not per-day totals
+            "DELETE FROM survey_analytics",
+            // High-water mark of rolled-up survey_id per rollup
+            """
+            CREATE TABLE IF NOT EXISTS survey_rollup_state (
+                rollup_name VARCHAR(50) PRIMARY KEY,
+                last_survey_id INT NOT NULL,
+                refreshed_on TIMESTAMP
+            )
+            """
+        ));
+        
+        migrations.add(new SchemaMigration(3, "Customer history index for survey_responses",
+            // Per-customer profile loading and lookups, in survey order
+            "CREATE INDEX idx_survey_customer_date ON survey_responses (customer_id, survey_date)"
+        ));
+        
+        migrations.add(new SchemaMigration(4, "Row fingerprints for duplicate detection",
+            // Content hash of each uploaded row; existing rows are fingerprinted at startup
+            "ALTER TABLE survey_responses ADD COLUMN row_fingerprint VARCHAR(32)",
+            // Rows without a fingerprint (NULL) are not constrained
+            "CREATE UNIQUE INDEX idx_survey_fingerprint ON survey_responses (row_fingerprint)"
+        ));
+        
+        return migrations;
+    }
+    
     @Override
     protected void insertSampleData() throws SQLException {
         // Insert base sample data
@@ -224,46 +284,4 @@ public class SurveyDatabaseManager extends DatabaseManager {
         insightStmt.setInt(4, 18);
         insightStmt.executeUpdate();
     }
-    
-    /**
-     * Calculate and cache daily analytics
-     */
-    public void calculateDailyAnalytics() throws SQLException {
-        try (Connection conn = getConnection()) {
-            String analyticsSQL = """
-                INSERT INTO survey_analytics 
-                (calculation_date, total_responses, avg_satisfaction_score, satisfaction_rate, 
-                 nps_score, avg_food_quality, avg_service_quality, avg_hygiene, avg_value_for_money)
-                SELECT 
-                    CURDATE() as calculation_date,
-                    COUNT(*) as total_responses,
-                    AVG(CASE overall_satisfaction 
-                        WHEN 'Highly Satisfied' THEN 5
-                        WHEN 'Satisfied' THEN 4
-                        WHEN 'Neutral' THEN 3
-                        WHEN 'Dissatisfied' THEN 2
-                        WHEN 'Highly Dissatisfied' THEN 1
-                        ELSE 3 END) as avg_satisfaction_score,
-                    (SUM(CASE WHEN overall_satisfaction IN ('Satisfied', 'Highly Satisfied') THEN 1 ELSE 0 END) * 100.0 / COUNT(*)) as satisfaction_rate,
-                    (SUM(CASE WHEN nps_score >= 9 THEN 1 ELSE 0 END) - SUM(CASE WHEN nps_score <= 6 THEN 1 ELSE 0 END)) * 100.0 / COUNT(*) as nps_score,
-                    AVG(food_quality) as avg_food_quality,
-                    AVG(service_quality) as avg_service_quality,
-                    AVG(hygiene) as avg_hygiene,
-                    AVG(value_for_money) as avg_value_for_money
-                FROM survey_responses
-                ON DUPLICATE KEY UPDATE
-                    total_responses = VALUES(total_responses),
-                    avg_satisfaction_score = VALUES(avg_satisfaction_score),
-                    satisfaction_rate = VALUES(satisfaction_rate),
-                    nps_score = VALUES(nps_score),
-                    avg_food_quality = VALUES(avg_food_quality),
-                    avg_service_quality = VALUES(avg_service_quality),
-                    avg_hygiene = VALUES(avg_hygiene),
-                    avg_value_for_money = VALUES(avg_value_for_money)
-            """;
-            
-            PreparedStatement stmt = conn.prepareStatement(analyticsSQL);
-            stmt.executeUpdate();
-        }
-    }
 } 
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.customerdashboard.backend;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SurveyDateParser reads survey dates written as text in an upload's date column
+ * The column's format is detected from its first SAMPLE_SIZE values, preferring the
+ * earliest candidate that reads the most of them, and that one cached formatter is then
+ * used for the rest of the column. ISO dates skip the formatter entirely.
+ * A time of day after the date is accepted and dropped.
+ * Not thread-safe: each parsed sheet or file uses its own instance
+ */
+public class SurveyDateParser {
+    static final int SAMPLE_SIZE = 20;
+
+    // Order matters: when a sample fits several formats, the earlier one wins
+    // (so 03/04/2024 is read month-first unless some value has a day above 12 in that position)
+    private static final String[] DATE_PATTERNS = {
+        "uuuu-M-d", "uuuu/M/d", "M/d/uuuu", "d/M/uuuu", "M-d-uuuu", "d-M-uuuu", "d.M.uuuu",
+        "M/d/uu", "d/M/uu", "d-MMM-uuuu", "d-MMM-uu", "d MMM uuuu", "MMM d, uuuu", "d MMMM uuuu", "MMMM d, uuuu"
+    };
+    private static final DateTimeFormatter[] FORMATTERS = new DateTimeFormatter[DATE_PATTERNS.length];
+
+    static {
+        for (int i = 0; i < DATE_PATTERNS.length; i++) {
+            FORMATTERS[i] = new DateTimeFormatterBuilder()
+                .parseCaseInsensitive()
+                .appendPattern(DATE_PATTERNS[i])
+                .appendPattern("[[' ']['T']H:mm[:ss][.SSS]]")
+                .toFormatter(Locale.ENGLISH)
+                .withResolverStyle(ResolverStyle.STRICT);
+        }
+    }
+
+    private final List<String> samples = new ArrayList<>(SAMPLE_SIZE);
+    private DateTimeFormatter formatter;
+    private boolean detected;
+
+    /**
+     * True until the column's format has been chosen
+     */
+    public boolean isDetecting() {
+        return !detected;
+    }
+
+    /**
+     * Record a value seen while detecting; the format is chosen once SAMPLE_SIZE values are in
+     */
+    public void addSample(String text) {
+        if (detected || text == null || text.isBlank()) return;
+
+        samples.add(text.trim());
+        if (samples.size() >= SAMPLE_SIZE) {
+            detect();
+        }
+    }
+
+    /**
+     * Choose the format from the samples seen so far (called early when the column is short)
+     */
+    public void detect() {
+        if (detected) return;
+
+        int bestMatches = 0;
+        for (DateTimeFormatter candidate : FORMATTERS) {
+            int matches = 0;
+            for (String sample : samples) {
+                if (isoDate(sample) == null && parse(candidate, sample) != null) {
+                    matches++;
+                }
+            }
+            if (matches > bestMatches) {
+                bestMatches = matches;
+                formatter = candidate;
+            }
+        }
+        samples.clear();
+        detected = true;
+    }
+
+    /**
+     * Parse a date cell, or return null if it is not a date in any known format
+     * Detects the format first if that has not happened yet
+     */
+    public Date parse(String text) {
+        if (text == null) return null;
+        detect();
+
+        text = text.trim();
+        LocalDate date = isoDate(text);
+        if (date == null && formatter != null) {
+            date = parse(formatter, text);
+        }
+        if (date == null) {
+            // A value in a different format from the rest of the column
+            for (DateTimeFormatter candidate : FORMATTERS) {
+                if (candidate != formatter && (date = parse(candidate, text)) != null) break;
+            }
+        }
+        return date != null ? Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()) : null;
+    }
+
+    private static LocalDate parse(DateTimeFormatter candidate, String text) {
+        try {
+            return candidate.parse(text, LocalDate::from);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hand-written reader for yyyy-MM-dd, optionally followed by a time
+     */
+    private static LocalDate isoDate(String text) {
+        if (text.length() < 10 || text.charAt(4) != '-' || text.charAt(7) != '-') return null;
+        if (text.length() > 10 && text.charAt(10) != 'T' && text.charAt(10) != ' ') return null;
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        if (year < 0 || month < 0 || day < 0) return null;
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int digits(String text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,308 @@
+package com.customerdashboard.backend;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SurveyDeduplicator recognises survey rows that have already been saved
+ * Every row gets a fingerprint over its customer, date, ratings and comment, stored
+ * in survey_responses.row_fingerprint under a unique index. A Bloom filter of saved
+ * fingerprints clears most new rows without touching the database; the few it flags
+ * are confirmed with one query per chunk
+ */
+public class SurveyDeduplicator {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final DatabaseManager dbManager;
+    private final long minimumCapacity;
+    private BloomFilter filter;
+    private long capacity;
+    private long added;
+    // Fingerprints recorded while a rebuild scans the table; null when no rebuild is running
+    private List<String> committedDuringRebuild;
+
+    /**
+     * @param expectedRows initial filter capacity; the filter is rebuilt at twice the size when exceeded
+     */
+    public SurveyDeduplicator(DatabaseManager dbManager, long expectedRows) {
+        this.dbManager = dbManager;
+        this.minimumCapacity = Math.max(1000, expectedRows);
+    }
+
+    /**
+     * Fingerprint of a response: first 128 bits of SHA-256 over its content, as 32 hex digits
+     */
+    public static String fingerprint(SurveyResponse response) {
+        StringBuilder content = new StringBuilder(128)
+            .append(trim(response.getCustomerId())).append('\u001F')
+            .append(response.getSurveyDate() != null ? response.getSurveyDate().getTime() : 0).append('\u001F')
+            .append(response.getFoodQuality()).append('\u001F')
+            .append(response.getServiceQuality()).append('\u001F')
+            .append(response.getHygiene()).append('\u001F')
+            .append(response.getValueForMoney()).append('\u001F')
+            .append(trim(response.getOverallSatisfaction())).append('\u001F')
+            .append(response.getNpsScore()).append('\u001F')
+            .append(trim(response.getComments()));
+
+        byte[] digest = SHA256.get().digest(content.toString().getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder(32);
+        for (int i = 0; i < 16; i++) {
+            hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(digest[i] & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * True when a database error is a unique-key violation (the row is a duplicate)
+     */
+    public static boolean isDuplicateKey(SQLException e) {
+        // 23505: standard SQLSTATE (H2, PostgreSQL); 1062: MySQL duplicate entry
+        return "23505".equals(e.getSQLState()) || e.getErrorCode() == 1062;
+    }
+
+    /**
+     * Fingerprint rows saved before fingerprints existed, then load every fingerprint into the filter
+     */
+    public void seed() throws SQLException {
+        backfill();
+        synchronized (this) {
+            committedDuringRebuild = new ArrayList<>();
+        }
+        reload(minimumCapacity);
+    }
+
+    /**
+     * False when the fingerprint has definitely not been saved
+     */
+    public synchronized boolean mightContain(String fingerprint) {
+        return filter.mightContain(high(fingerprint), low(fingerprint));
+    }
+
+    /**
+     * Of the given fingerprints, those already present in survey_responses (one query)
+     */
+    public Set<String> findExisting(Connection conn, Collection<String> fingerprints) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        if (fingerprints.isEmpty()) return existing;
+
+        StringBuilder sql = new StringBuilder("SELECT row_fingerprint FROM survey_responses WHERE row_fingerprint IN (");
+        for (int i = 0; i < fingerprints.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (String fingerprint : fingerprints) {
+                stmt.setString(index++, fingerprint);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1));
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Add newly committed fingerprints, rebuilding the filter larger once it is over capacity
+     * The rebuild scans the table without holding the lock, so uploads keep checking the old filter meanwhile
+     */
+    public void recordSaved(List<String> fingerprints) {
+        long newCapacity;
+        synchronized (this) {
+            for (String fingerprint : fingerprints) {
+                filter.add(high(fingerprint), low(fingerprint));
+            }
+            added += fingerprints.size();
+
+            if (committedDuringRebuild != null) {
+                committedDuringRebuild.addAll(fingerprints);
+                return;
+            }
+            if (added <= capacity) return;
+            committedDuringRebuild = new ArrayList<>();
+            newCapacity = capacity * 2;
+        }
+
+        try {
+            reload(newCapacity);
+        } catch (SQLException e) {
+            // Keep the saturated filter; it only lets more rows through to the confirming query
+            System.err.println("Error rebuilding duplicate filter: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Build a filter sized for at least the given capacity from the table, then swap it in
+     * together with the fingerprints recorded while the table was being read
+     * The caller sets committedDuringRebuild first; it is cleared here whether or not the rebuild succeeds
+     */
+    private void reload(long minCapacity) throws SQLException {
+        try {
+            BloomFilter newFilter;
+            long newCapacity;
+            long loaded = 0;
+            try (Connection conn = dbManager.getConnection()) {
+                long rows;
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM survey_responses");
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    rows = rs.getLong(1);
+                }
+
+                newCapacity = Math.max(minCapacity, rows * 2);
+                newFilter = new BloomFilter(newCapacity, FALSE_POSITIVE_RATE);
+                try (PreparedStatement stmt = conn.prepareStatement(
+                         "SELECT row_fingerprint FROM survey_responses WHERE row_fingerprint IS NOT NULL")) {
+                    stmt.setFetchSize(1000);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            String fingerprint = rs.getString(1);
+                            newFilter.add(high(fingerprint), low(fingerprint));
+                            loaded++;
+                        }
+                    }
+                }
+            }
+
+            synchronized (this) {
+                // Rows committed during the scan may or may not have been read; adding them again is harmless
+                for (String fingerprint : committedDuringRebuild) {
+                    newFilter.add(high(fingerprint), low(fingerprint));
+                }
+                filter = newFilter;
+                capacity = newCapacity;
+                added = loaded + committedDuringRebuild.size();
+            }
+            System.out.println("Duplicate filter loaded with " + loaded + " fingerprints (capacity " + newCapacity + ")");
+        } finally {
+            synchronized (this) {
+                committedDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * Fingerprint rows that have none yet (rows saved before fingerprinting, or outside uploads)
+     * Rows identical to an already fingerprinted row are left without one
+     */
+    private void backfill() throws SQLException {
+        String selectSql = """
+            SELECT survey_id, customer_id, survey_date, food_quality, service_quality, hygiene,
+                   value_for_money, overall_satisfaction, comments, nps_score
+            FROM survey_responses
+            WHERE row_fingerprint IS NULL
+            ORDER BY survey_id
+        """;
+
+        long updated = 0;
+        long duplicates = 0;
+        try (Connection readConn = dbManager.getConnection();
+             Connection writeConn = dbManager.getConnection();
+             PreparedStatement select = readConn.prepareStatement(selectSql);
+             PreparedStatement update = writeConn.prepareStatement(
+                 "UPDATE survey_responses SET row_fingerprint = ? WHERE survey_id = ?")) {
+            select.setFetchSize(1000);
+
+            List<Object[]> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    SurveyResponse response = new SurveyResponse();
+                    response.setCustomerId(rs.getString("customer_id"));
+                    response.setSurveyDate(rs.getTimestamp("survey_date"));
+                    response.setFoodQuality(rs.getInt("food_quality"));
+                    response.setServiceQuality(rs.getInt("service_quality"));
+                    response.setHygiene(rs.getInt("hygiene"));
+                    response.setValueForMoney(rs.getInt("value_for_money"));
+                    response.setOverallSatisfaction(rs.getString("overall_satisfaction"));
+                    response.setComments(rs.getString("comments"));
+                    response.setNpsScore(rs.getInt("nps_score"));
+                    batch.add(new Object[] { fingerprint(response), rs.getInt("survey_id") });
+
+                    if (batch.size() == BACKFILL_BATCH_SIZE) {
+                        long saved = updateFingerprints(update, batch);
+                        updated += saved;
+                        duplicates += batch.size() - saved;
+                        batch.clear();
+                    }
+                }
+            }
+            long saved = updateFingerprints(update, batch);
+            updated += saved;
+            duplicates += batch.size() - saved;
+        }
+
+        if (updated > 0 || duplicates > 0) {
+            System.out.println("Fingerprinted " + updated + " existing survey responses"
+                + (duplicates > 0 ? " (" + duplicates + " duplicate rows left without a fingerprint)" : ""));
+        }
+    }
+
+    /**
+     * Apply one batch of backfill updates ({fingerprint, survey_id} pairs, auto-commit),
+     * falling back to single rows on duplicates
+     * @return rows fingerprinted
+     */
+    private long updateFingerprints(PreparedStatement update, List<Object[]> batch) throws SQLException {
+        if (batch.isEmpty()) return 0;
+
+        try {
+            for (Object[] row : batch) {
+                update.setString(1, (String) row[0]);
+                update.setInt(2, (Integer) row[1]);
+                update.addBatch();
+            }
+            update.executeBatch();
+            return batch.size();
+        } catch (BatchUpdateException e) {
+            update.clearBatch();
+        }
+
+        long saved = 0;
+        for (Object[] row : batch) {
+            update.setString(1, (String) row[0]);
+            update.setInt(2, (Integer) row[1]);
+            try {
+                saved += update.executeUpdate();
+            } catch (SQLException e) {
+                if (!isDuplicateKey(e)) throw e;
+            }
+        }
+        return saved;
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : "";
+    }
+
+    private static long high(String fingerprint) {
+        return Long.parseUnsignedLong(fingerprint, 0, 16, 16);
+    }
+
+    private static long low(String fingerprint) {
+        return Long.parseUnsignedLong(fingerprint, 16, 32, 16);
+    }
+}
@@ -0,0 +1,295 @@
+package com.customerdashboard.backend;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * SurveyEventBroadcaster pushes metric updates to Server-Sent Events clients
+ * Saved surveys are folded into one pending delta; at most once per publish
+ * interval the delta and a fresh metrics snapshot are serialized once and
+ * queued for every open stream. Each stream is written with non-blocking I/O
+ * from its own bounded queue, so a stalled client is dropped instead of
+ * holding up the others
+ */
+public class SurveyEventBroadcaster {
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    // Slots taken, counted separately so the limit is checked and claimed in one step
+    private final AtomicInteger clientCount = new AtomicInteger();
+    private final AtomicLong eventId = new AtomicLong();
+    private final Supplier<JsonObject> snapshot;
+    private final Gson gson = new Gson();
+    private final ScheduledExecutorService executor;
+    private final int maxClients;
+    private final int maxQueuedEvents;
+
+    private MetricTotals pendingDelta = new MetricTotals();
+
+    /**
+     * @param maxQueuedEvents events a client may fall behind by before it is disconnected
+     */
+    public SurveyEventBroadcaster(Supplier<JsonObject> snapshot, int maxClients, int maxQueuedEvents,
+                                  long publishIntervalMillis, long heartbeatSeconds) {
+        this.snapshot = snapshot;
+        this.maxClients = maxClients;
+        this.maxQueuedEvents = Math.max(1, maxQueuedEvents);
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "survey-events");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::publishPending, publishIntervalMillis, publishIntervalMillis,
+                                        TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::sendHeartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Start streaming to a client; it receives the current snapshot first
+     * @return false when the client limit has been reached
+     */
+    public boolean register(AsyncContext context) throws IOException {
+        if (!claimSlot()) {
+            return false;
+        }
+
+        Client client = new Client(context);
+        context.setTimeout(0);
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                remove(client);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                drop(client);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                drop(client);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // Nothing to do
+            }
+        });
+
+        // Queued before the client is visible to publishers, so the snapshot is always the first event
+        JsonObject payload = new JsonObject();
+        payload.add("totals", snapshot.get());
+        client.enqueue(encode("retry: 5000\n" + formatEvent("snapshot", payload)));
+        clients.add(client);
+
+        try {
+            client.start(context.getResponse().getOutputStream());
+        } catch (IOException | IllegalStateException e) {
+            drop(client);
+            throw e;
+        }
+        return true;
+    }
+
+    private boolean claimSlot() {
+        while (true) {
+            int count = clientCount.get();
+            if (count >= maxClients) return false;
+            if (clientCount.compareAndSet(count, count + 1)) return true;
+        }
+    }
+
+    /**
+     * Fold newly committed responses into the pending delta
+     */
+    public void publish(List<SurveyResponse> saved) {
+        synchronized (this) {
+            for (SurveyResponse response : saved) {
+                pendingDelta.add(response.getFoodQuality(), response.getServiceQuality(), response.getHygiene(),
+                                 response.getValueForMoney(), response.getOverallSatisfaction(),
+                                 response.getNpsScore());
+            }
+        }
+    }
+
+    public boolean hasCapacity() {
+        return clientCount.get() < maxClients;
+    }
+
+    public int getClientCount() {
+        return clientCount.get();
+    }
+
+    private void publishPending() {
+        MetricTotals delta;
+        synchronized (this) {
+            if (pendingDelta.getResponseCount() == 0) return;
+            delta = pendingDelta;
+            pendingDelta = new MetricTotals();
+        }
+        if (clients.isEmpty()) return;
+
+        try {
+            JsonObject deltaJson = new JsonObject();
+            delta.writeAverages(deltaJson);
+            deltaJson.addProperty("satisfiedCount", delta.getSatisfiedCount());
+            deltaJson.addProperty("promoters", delta.promoterCount);
+            deltaJson.addProperty("detractors", delta.detractorCount);
+            deltaJson.add("satisfactionDistribution", delta.distributionJson());
+
+            JsonObject payload = new JsonObject();
+            payload.add("delta", deltaJson);
+            payload.add("totals", snapshot.get());
+
+            broadcast(encode(formatEvent("metrics", payload)));
+        } catch (RuntimeException e) {
+            System.err.println("Error publishing survey events: " + e.getMessage());
+        }
+    }
+
+    private void sendHeartbeat() {
+        broadcast(encode(": keepalive\n\n"));
+    }
+
+    private void broadcast(byte[] event) {
+        for (Client client : clients) {
+            if (!client.enqueue(event)) {
+                drop(client);
+            }
+        }
+    }
+
+    private String formatEvent(String name, JsonObject payload) {
+        return "id: " + eventId.incrementAndGet() + "\nevent: " + name + "\ndata: " + gson.toJson(payload) + "\n\n";
+    }
+
+    private static byte[] encode(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private boolean remove(Client client) {
+        if (clients.remove(client)) {
+            clientCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void drop(Client client) {
+        if (remove(client)) {
+            try {
+                client.context.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+
+    /**
+     * Close every open stream and stop publishing
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Client client : clients) {
+            drop(client);
+        }
+    }
+
+    /**
+     * One open stream: events wait in a bounded queue and are written whenever the
+     * container reports the connection writable
+     */
+    private class Client implements WriteListener {
+        final AsyncContext context;
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+        private ServletOutputStream out;
+        private boolean flushNeeded;
+
+        Client(AsyncContext context) {
+            this.context = context;
+        }
+
+        /**
+         * Switch the stream to non-blocking mode; the container then calls onWritePossible
+         */
+        void start(ServletOutputStream stream) {
+            synchronized (this) {
+                out = stream;
+            }
+            stream.setWriteListener(this);
+        }
+
+        /**
+         * Queue an event and write what the connection accepts now
+         * @return false when the client has fallen too far behind or the write failed
+         */
+        synchronized boolean enqueue(byte[] event) {
+            if (queue.size() >= maxQueuedEvents) {
+                return false;
+            }
+            queue.addLast(event);
+            return writeQueued();
+        }
+
+        @Override
+        public void onWritePossible() {
+            boolean ok;
+            synchronized (this) {
+                ok = writeQueued();
+            }
+            if (!ok) {
+                drop(this);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            drop(this);
+        }
+
+        /**
+         * Write queued events until the queue is empty or the connection would block;
+         * isReady() returning false makes the container call onWritePossible later
+         */
+        private boolean writeQueued() {
+            if (out == null) return true;
+
+            try {
+                while (out.isReady()) {
+                    byte[] next = queue.pollFirst();
+                    if (next != null) {
+                        out.write(next);
+                        flushNeeded = true;
+                    } else if (flushNeeded) {
+                        flushNeeded = false;
+                        out.flush();
+                    } else {
+                        return true;
+                    }
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.customerdashboard.backend;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SurveyIngestPipeline overlaps parsing and inserting of an upload
+ * Parser tasks (one per file or sheet) push rows into a bounded queue; the calling
+ * thread drains the queue in chunks into SurveyBatchWriter. A full queue blocks the
+ * parsers, so memory stays constant regardless of upload size
+ */
+public class SurveyIngestPipeline {
+    private static final Row END_OF_INPUT = new Row(-1, null, null);
+
+    /**
+     * Produces parsed rows (and parse errors) into a RowHandler
+     */
+    public interface RowSource {
+        void read(ExcelProcessor.RowHandler handler) throws Exception;
+    }
+
+    /**
+     * One file, or one sheet of a workbook, in a multi-source upload
+     */
+    public static class Source {
+        private final String fileName;
+        private final String sheetName;
+        private final RowSource rows;
+
+        /**
+         * @param sheetName null for files without sheets (CSV)
+         */
+        public Source(String fileName, String sheetName, RowSource rows) {
+            this.fileName = fileName;
+            this.sheetName = sheetName;
+            this.rows = rows;
+        }
+    }
+
+    private final SurveyBatchWriter batchWriter;
+    private final ExecutorService parserExecutor;
+    private final int queueCapacity;
+
+    public SurveyIngestPipeline(SurveyBatchWriter batchWriter, ExecutorService parserExecutor, int queueCapacity) {
+        this.batchWriter = batchWriter;
+        this.parserExecutor = parserExecutor;
+        this.queueCapacity = Math.max(queueCapacity, batchWriter.getBatchSize());
+    }
+
+    /**
+     * Parse and save all rows from the source, returning once every row is saved or rejected
+     */
+    public IngestResult ingest(RowSource source) throws Exception {
+        IngestResult result = new IngestResult();
+        ingest(source, result);
+        return result;
+    }
+
+    /**
+     * Parse and save all rows from the source, updating result as chunks commit
+     */
+    public void ingest(RowSource source, IngestResult result) throws Exception {
+        List<Producer> producers = run(Collections.singletonList(source), Collections.singletonList(result));
+
+        Exception failure = producers.get(0).failure;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Parse several files or sheets concurrently on the parser executor and save them as one upload
+     * Each source gets its own section of result; a source that cannot be read is reported
+     * there and does not stop the others
+     */
+    public void ingestAll(List<Source> sources, IngestResult result) throws Exception {
+        List<RowSource> rowSources = new ArrayList<>(sources.size());
+        List<IngestResult> results = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            rowSources.add(source.rows);
+            results.add(result.addSource(source.fileName, source.sheetName));
+        }
+
+        for (Producer producer : run(rowSources, results)) {
+            if (producer.failure != null) {
+                producer.result.setError(producer.failure.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Start one producer per source on the parser executor and drain them all into the writer
+     */
+    private List<Producer> run(List<RowSource> sources, List<IngestResult> results) throws Exception {
+        BlockingQueue<Row> queue = new ArrayBlockingQueue<>(queueCapacity);
+        List<Producer> producers = new ArrayList<>(sources.size());
+        List<Future<?>> parsing = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            Producer producer = new Producer(sources.get(i), queue, results.get(i));
+            producers.add(producer);
+            parsing.add(parserExecutor.submit(producer));
+        }
+
+        try {
+            consume(queue, producers.size());
+        } catch (Exception e) {
+            // Stop the parsers; they may be blocked on a full queue
+            for (Producer producer : producers) {
+                producer.cancelled = true;
+            }
+            queue.clear();
+            for (Future<?> future : parsing) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+        return producers;
+    }
+
+    /**
+     * Drain the queue in chunks of up to one batch until every producer has sent its end marker
+     */
+    private void consume(BlockingQueue<Row> queue, int producerCount) throws Exception {
+        int batchSize = batchWriter.getBatchSize();
+        List<Row> drained = new ArrayList<>(batchSize);
+        List<SurveyResponse> chunk = new ArrayList<>(batchSize);
+        int finished = 0;
+
+        while (finished < producerCount) {
+            drained.clear();
+            drained.add(queue.take());
+            queue.drainTo(drained, batchSize - 1);
+
+            chunk.clear();
+            long[] rowNumbers = new long[drained.size()];
+            IngestResult[] rowResults = new IngestResult[drained.size()];
+            for (Row row : drained) {
+                if (row == END_OF_INPUT) {
+                    finished++;
+                    continue;
+                }
+                rowNumbers[chunk.size()] = row.rowNumber;
+                rowResults[chunk.size()] = row.result;
+                chunk.add(row.response);
+            }
+
+            if (!chunk.isEmpty()) {
+                batchWriter.writeChunk(chunk, rowNumbers, rowResults);
+            }
+        }
+    }
+
+    /**
+     * Runs the source on the parser executor and feeds the queue
+     */
+    private static class Producer implements Runnable, ExcelProcessor.RowHandler {
+        private final RowSource source;
+        private final BlockingQueue<Row> queue;
+        private final IngestResult result;
+        volatile boolean cancelled;
+        volatile Exception failure;
+
+        Producer(RowSource source, BlockingQueue<Row> queue, IngestResult result) {
+            this.source = source;
+            this.queue = queue;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            try {
+                source.read(this);
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                try {
+                    put(END_OF_INPUT);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void onRow(long rowNumber, SurveyResponse response) throws Exception {
+            result.addProcessed(1);
+            put(new Row(rowNumber, response, result));
+        }
+
+        @Override
+        public void onError(long rowNumber, String message) {
+            result.addProcessed(1);
+            result.addFailure(rowNumber, message);
+        }
+
+        private void put(Row row) throws InterruptedException {
+            while (!cancelled) {
+                if (queue.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+            if (row != END_OF_INPUT) {
+                throw new InterruptedException("Ingestion cancelled");
+            }
+        }
+    }
+
+    /**
+     * A parsed row with its position in its source and the result it counts towards
+     */
+    private static class Row {
+        final long rowNumber;
+        final SurveyResponse response;
+        final IngestResult result;
+
+        Row(long rowNumber, SurveyResponse response, IngestResult result) {
+            this.rowNumber = rowNumber;
+            this.response = response;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.customerdashboard.backend;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * SurveyMetricsEngine computes every dashboard KPI from one set of MetricTotals
+ * All-time requests read the in-memory aggregates; date-ranged requests fold the
+ * in-memory daily totals when they are loaded and otherwise read the daily rollups once.
+ * NPS percentiles and distinct-customer counts come from the per-bucket sketches.
+ * Callers pick the fields they need
+ */
+public class SurveyMetricsEngine {
+    public static final String TOTAL_RESPONSES = "totalResponses";
+    public static final String SATISFACTION_RATE = "satisfactionRate";
+    public static final String NPS_SCORE = "npsScore";
+    public static final String NPS_BREAKDOWN = "npsBreakdown";
+    public static final String AVERAGES = "averages";
+    public static final String DISTRIBUTION = "satisfactionDistribution";
+    public static final String MONTHLY_TRENDS = "monthlyTrends";
+    public static final String NPS_PERCENTILES = "npsPercentiles";
+    public static final String UNIQUE_CUSTOMERS = "uniqueCustomers";
+
+    public static final List<String> ALL_FIELDS = Collections.unmodifiableList(Arrays.asList(
+        TOTAL_RESPONSES, SATISFACTION_RATE, NPS_SCORE, NPS_BREAKDOWN, AVERAGES, DISTRIBUTION, MONTHLY_TRENDS,
+        NPS_PERCENTILES, UNIQUE_CUSTOMERS));
+
+    // Percentiles reported under npsPercentiles, as {label, fraction}
+    private static final String[] PERCENTILE_LABELS = { "p25", "p50", "p75", "p90" };
+    private static final double[] PERCENTILE_FRACTIONS = { 0.25, 0.5, 0.75, 0.9 };
+
+    // Months of trend data returned for all-time requests
+    private static final int TREND_MONTHS = 12;
+    // Upper bound on buckets a single trends request may ask for
+    private static final long MAX_TREND_BUCKETS = 10000;
+
+    /**
+     * Bucket sizes for the trends endpoint
+     */
+    public enum Granularity {
+        DAY(1), WEEK(7), MONTH(30), QUARTER(91);
+
+        private final int approximateDays;
+
+        Granularity(int approximateDays) {
+            this.approximateDays = approximateDays;
+        }
+
+        /**
+         * First day of the bucket containing date (weeks start on Monday)
+         */
+        public LocalDate bucketStart(LocalDate date) {
+            switch (this) {
+                case WEEK:
+                    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH:
+                    return date.withDayOfMonth(1);
+                case QUARTER:
+                    return LocalDate.of(date.getYear(), (date.get(IsoFields.QUARTER_OF_YEAR) - 1) * 3 + 1, 1);
+                default:
+                    return date;
+            }
+        }
+
+        /**
+         * Display label for the bucket starting on start, e.g. 2024-W05, 2024-02 or 2024-Q1
+         */
+        public String label(LocalDate start) {
+            switch (this) {
+                case WEEK:
+                    return String.format("%d-W%02d", start.get(IsoFields.WEEK_BASED_YEAR),
+                                         start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                case MONTH:
+                    return YearMonth.from(start).toString();
+                case QUARTER:
+                    return start.getYear() + "-Q" + start.get(IsoFields.QUARTER_OF_YEAR);
+                default:
+                    return start.toString();
+            }
+        }
+
+        /**
+         * Parse a granularity parameter (day, week, month or quarter)
+         * @throws IllegalArgumentException for anything else
+         */
+        public static Granularity parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown granularity: " + value + " (use day, week, month or quarter)");
+            }
+        }
+    }
+
+    private final SurveyAggregates aggregates;
+    private final SurveyRollupEngine rollupEngine;
+    private final SurveyDailyTotals dailyTotals;
+    private final SurveySketches sketches;
+
+    /**
+     * @param dailyTotals in-memory per-day totals for date-ranged requests, or null to use the rollups
+     * @param sketches per-bucket NPS histograms and distinct-customer sketches
+     */
+    public SurveyMetricsEngine(SurveyAggregates aggregates, SurveyRollupEngine rollupEngine,
+                               SurveyDailyTotals dailyTotals, SurveySketches sketches) {
+        this.aggregates = aggregates;
+        this.rollupEngine = rollupEngine;
+        this.dailyTotals = dailyTotals;
+        this.sketches = sketches;
+    }
+
+    /**
+     * Parse a comma-separated field selector ("all" selects every field)
+     * @throws IllegalArgumentException for unknown field names
+     */
+    public static Set<String> parseFields(String selector, Set<String> defaults) {
+        if (selector == null || selector.isBlank()) {
+            return defaults;
+        }
+
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : selector.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) continue;
+            if ("all".equals(name)) {
+                fields.addAll(ALL_FIELDS);
+            } else if (ALL_FIELDS.contains(name)) {
+                fields.add(name);
+            } else {
+                throw new IllegalArgumentException("Unknown metrics field: " + name);
+            }
+        }
+        return fields.isEmpty() ? defaults : fields;
+    }
+
+    /**
+     * Compute the selected fields over all responses
+     */
+    public JsonObject compute(Set<String> fields) {
+        MetricTotals totals = aggregates.getTotals();
+        YearMonth firstMonth = YearMonth.now().minusMonths(TREND_MONTHS);
+        TreeMap<YearMonth, MetricTotals> months = fields.contains(MONTHLY_TRENDS)
+            ? aggregates.getMonthlyTotals(firstMonth)
+            : new TreeMap<>();
+        SurveySketches.Sketch sketch = needsRangeSketch(fields) ? sketches.summarizeAll() : null;
+        TreeMap<YearMonth, SurveySketches.Sketch> monthSketches = fields.contains(MONTHLY_TRENDS)
+            ? sketches.monthlyBetween(firstMonth.atDay(1), LocalDate.MAX)
+            : new TreeMap<>();
+
+        JsonObject json = new JsonObject();
+        writeFields(json, fields, totals, months, sketch, monthSketches);
+        return json;
+    }
+
+    /**
+     * Compute the selected fields for from..to (inclusive) from the in-memory daily totals or a rollup read
+     */
+    public JsonObject compute(Set<String> fields, LocalDate from, LocalDate to) throws SQLException {
+        TreeMap<YearMonth, MetricTotals> months;
+        if (dailyTotals != null) {
+            months = dailyTotals.monthlyTotalsBetween(from, to);
+        } else {
+            months = rollupEngine.monthlyTotalsBetween(from, to);
+        }
+
+        MetricTotals totals = new MetricTotals();
+        for (MetricTotals month : months.values()) {
+            totals.add(month);
+        }
+
+        SurveySketches.Sketch sketch = needsRangeSketch(fields) ? sketches.summarize(from, to) : null;
+        TreeMap<YearMonth, SurveySketches.Sketch> monthSketches = fields.contains(MONTHLY_TRENDS)
+            ? sketches.monthlyBetween(from, to)
+            : new TreeMap<>();
+
+        JsonObject json = new JsonObject();
+        json.addProperty("from", from.toString());
+        json.addProperty("to", to.toString());
+        writeFields(json, fields, totals, months, sketch, monthSketches);
+        return json;
+    }
+
+    /**
+     * Per-bucket averages for every rating attribute plus NPS between from and to (inclusive)
+     * Buckets are folded from the in-memory daily totals or from daily rollup rows;
+     * buckets without responses are omitted
+     * @throws IllegalArgumentException when the range holds too many buckets
+     */
+    public JsonObject trends(LocalDate from, LocalDate to, Granularity granularity) throws SQLException {
+        long buckets = ChronoUnit.DAYS.between(from, to) / granularity.approximateDays + 1;
+        if (buckets > MAX_TREND_BUCKETS) {
+            throw new IllegalArgumentException("Range too large for " + granularity.name().toLowerCase(Locale.ROOT)
+                + " granularity (" + buckets + " buckets, max " + MAX_TREND_BUCKETS + ")");
+        }
+
+        TreeMap<LocalDate, MetricTotals> totals;
+        if (dailyTotals != null) {
+            totals = dailyTotals.bucketTotalsBetween(from, to, granularity::bucketStart);
+        } else {
+            totals = new TreeMap<>();
+            for (Map.Entry<LocalDate, MetricTotals> day : rollupEngine.dailyTotalsBetween(from, to).entrySet()) {
+                totals.computeIfAbsent(granularity.bucketStart(day.getKey()), d -> new MetricTotals()).add(day.getValue());
+            }
+        }
+
+        JsonArray trends = new JsonArray();
+        for (Map.Entry<LocalDate, MetricTotals> entry : totals.entrySet()) {
+            MetricTotals bucket = entry.getValue();
+            JsonObject bucketData = new JsonObject();
+            bucketData.addProperty("period", granularity.label(entry.getKey()));
+            bucketData.addProperty("startDate", entry.getKey().toString());
+            bucketData.addProperty("responseCount", bucket.getResponseCount());
+            bucketData.addProperty("avgSatisfaction", bucket.getAverageSatisfaction());
+            bucketData.addProperty("avgFoodQuality", MetricTotals.average(bucket.foodQualitySum, bucket.responseCount));
+            bucketData.addProperty("avgServiceQuality", MetricTotals.average(bucket.serviceQualitySum, bucket.responseCount));
+            bucketData.addProperty("avgHygiene", MetricTotals.average(bucket.hygieneSum, bucket.responseCount));
+            bucketData.addProperty("avgValueForMoney", MetricTotals.average(bucket.valueForMoneySum, bucket.responseCount));
+            bucketData.addProperty("avgNPS", MetricTotals.average(bucket.npsSum, bucket.npsCount));
+            if (bucket.getNpsScore() != null) {
+                bucketData.addProperty("npsScore", bucket.getNpsScore());
+            }
+            bucketData.addProperty("satisfactionRate", bucket.getSatisfactionRate());
+            trends.add(bucketData);
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("from", from.toString());
+        json.addProperty("to", to.toString());
+        json.addProperty("granularity", granularity.name().toLowerCase(Locale.ROOT));
+        json.add("trends", trends);
+        return json;
+    }
+
+    private static boolean needsRangeSketch(Set<String> fields) {
+        return fields.contains(NPS_PERCENTILES) || fields.contains(UNIQUE_CUSTOMERS);
+    }
+
+    private static JsonObject percentilesJson(SurveySketches.Sketch sketch) {
+        JsonObject percentiles = new JsonObject();
+        for (int i = 0; i < PERCENTILE_LABELS.length; i++) {
+            Integer value = sketch.getNpsPercentile(PERCENTILE_FRACTIONS[i]);
+            if (value != null) {
+                percentiles.addProperty(PERCENTILE_LABELS[i], value);
+            }
+        }
+        percentiles.addProperty("responses", sketch.getNpsCount());
+        return percentiles;
+    }
+
+    private void writeFields(JsonObject json, Set<String> fields, MetricTotals totals,
+                             TreeMap<YearMonth, MetricTotals> months, SurveySketches.Sketch sketch,
+                             TreeMap<YearMonth, SurveySketches.Sketch> monthSketches) {
+        if (fields.contains(AVERAGES)) {
+            totals.writeAverages(json);
+        }
+        if (fields.contains(TOTAL_RESPONSES)) {
+            json.addProperty(TOTAL_RESPONSES, totals.getResponseCount());
+        }
+        if (fields.contains(SATISFACTION_RATE)) {
+            json.addProperty(SATISFACTION_RATE, totals.getSatisfactionRate());
+        }
+        if (fields.contains(NPS_SCORE) && totals.getNpsScore() != null) {
+            json.addProperty(NPS_SCORE, totals.getNpsScore());
+        }
+        if (fields.contains(NPS_BREAKDOWN)) {
+            JsonObject breakdown = new JsonObject();
+            breakdown.addProperty("promoters", totals.promoterCount);
+            breakdown.addProperty("passives", totals.npsCount - totals.promoterCount - totals.detractorCount);
+            breakdown.addProperty("detractors", totals.detractorCount);
+            breakdown.addProperty("responses", totals.npsCount);
+            json.add(NPS_BREAKDOWN, breakdown);
+        }
+        if (fields.contains(DISTRIBUTION)) {
+            json.add(DISTRIBUTION, totals.distributionJson());
+        }
+        if (fields.contains(NPS_PERCENTILES)) {
+            json.add(NPS_PERCENTILES, percentilesJson(sketch));
+        }
+        if (fields.contains(UNIQUE_CUSTOMERS)) {
+            // HyperLogLog estimate, accurate to a couple of percent
+            json.addProperty(UNIQUE_CUSTOMERS, sketch.getUniqueCustomers());
+        }
+        if (fields.contains(MONTHLY_TRENDS)) {
+            JsonArray trends = new JsonArray();
+            for (Map.Entry<YearMonth, MetricTotals> entry : months.entrySet()) {
+                MetricTotals month = entry.getValue();
+                JsonObject monthData = new JsonObject();
+                monthData.addProperty("month", entry.getKey().toString());
+                monthData.addProperty("avgSatisfaction", month.getAverageSatisfaction());
+                monthData.addProperty("responseCount", month.getResponseCount());
+                SurveySketches.Sketch monthSketch = monthSketches.get(entry.getKey());
+                if (monthSketch != null) {
+                    if (monthSketch.getNpsCount() > 0) {
+                        monthData.addProperty("npsMedian", monthSketch.getNpsPercentile(0.5));
+                        monthData.addProperty("npsP90", monthSketch.getNpsPercentile(0.9));
+                    }
+                    monthData.addProperty("uniqueCustomers", monthSketch.getUniqueCustomers());
+                }
+                trends.add(monthData);
+            }
+            json.add(MONTHLY_TRENDS, trends);
+        }
+    }
+}
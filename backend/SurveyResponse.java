@@ -153,6 +153,15 @@ public class SurveyResponse {
     }
     
     public int getSatisfactionScore() {
+        return satisfactionScore(overallSatisfaction);
+    }
+    
+    /**
+     * Map an overall satisfaction label to its 1-5 score (unknown labels score 3)
+     */
+    public static int satisfactionScore(String overallSatisfaction) {
+        if (overallSatisfaction == null) return 3;
+        
         switch (overallSatisfaction) {
             case "Highly Satisfied": return 5;
             case "Satisfied": return 4;
@@ -0,0 +1,352 @@
+package com.customerdashboard.backend;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SurveyRollupEngine maintains one survey_analytics row per survey day
+ * Each refresh only recomputes days that received responses since the last
+ * refresh, and date-ranged analytics are answered by summing day rows instead of
+ * scanning survey_responses. Days are reported by the commit listener as rows are
+ * saved; a survey_id high-water mark additionally picks up rows saved elsewhere.
+ * The mark alone is not enough: ids are assigned at insert but batches commit later,
+ * so a lower id can become visible after the mark has passed it.
+ * Refreshes run only on the rollup thread: each commit queues one, so readers
+ * never rebuild days themselves and see the day rows as of the last refresh
+ */
+public class SurveyRollupEngine {
+    private static final String ROLLUP_NAME = "daily";
+
+    // Sums and counts for one day, computed with portable SQL (no CURDATE/DATE_FORMAT/ON DUPLICATE KEY)
+    private static final String DAY_TOTALS_SQL = """
+        SELECT
+            COUNT(*) AS total_responses,
+            SUM(CASE overall_satisfaction
+                WHEN 'Highly Satisfied' THEN 5
+                WHEN 'Satisfied' THEN 4
+                WHEN 'Neutral' THEN 3
+                WHEN 'Dissatisfied' THEN 2
+                WHEN 'Highly Dissatisfied' THEN 1
+                ELSE 3 END) AS satisfaction_sum,
+            SUM(CASE WHEN overall_satisfaction = 'Highly Satisfied' THEN 1 ELSE 0 END) AS highly_satisfied_count,
+            SUM(CASE WHEN overall_satisfaction = 'Satisfied' THEN 1 ELSE 0 END) AS satisfied_count,
+            SUM(CASE WHEN overall_satisfaction = 'Neutral' THEN 1 ELSE 0 END) AS neutral_count,
+            SUM(CASE WHEN overall_satisfaction = 'Dissatisfied' THEN 1 ELSE 0 END) AS dissatisfied_count,
+            SUM(CASE WHEN overall_satisfaction = 'Highly Dissatisfied' THEN 1 ELSE 0 END) AS highly_dissatisfied_count,
+            SUM(food_quality) AS food_quality_sum,
+            SUM(service_quality) AS service_quality_sum,
+            SUM(hygiene) AS hygiene_sum,
+            SUM(value_for_money) AS value_for_money_sum,
+            SUM(nps_score) AS nps_sum,
+            COUNT(nps_score) AS nps_count,
+            SUM(CASE WHEN nps_score >= 9 THEN 1 ELSE 0 END) AS promoter_count,
+            SUM(CASE WHEN nps_score <= 6 THEN 1 ELSE 0 END) AS detractor_count
+        FROM survey_responses
+        WHERE survey_date >= ? AND survey_date < ?
+    """;
+
+    private static final String INSERT_DAY_SQL = """
+        INSERT INTO survey_analytics
+        (calculation_date, total_responses, avg_satisfaction_score, satisfaction_rate, nps_score,
+         avg_food_quality, avg_service_quality, avg_hygiene, avg_value_for_money,
+         satisfaction_sum, highly_satisfied_count, satisfied_count, neutral_count,
+         dissatisfied_count, highly_dissatisfied_count, food_quality_sum, service_quality_sum,
+         hygiene_sum, value_for_money_sum, nps_sum, nps_count, promoter_count, detractor_count,
+         created_date)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final String RANGE_SQL = """
+        SELECT calculation_date, total_responses, satisfaction_sum, highly_satisfied_count,
+               satisfied_count, neutral_count, dissatisfied_count, highly_dissatisfied_count,
+               food_quality_sum, service_quality_sum, hygiene_sum, value_for_money_sum,
+               nps_sum, nps_count, promoter_count, detractor_count
+        FROM survey_analytics
+        WHERE calculation_date >= ? AND calculation_date <= ?
+        ORDER BY calculation_date
+    """;
+
+    private final DatabaseManager dbManager;
+    // Days with committed responses not yet folded into their day rows
+    private final Set<LocalDate> dirtyDays = ConcurrentHashMap.newKeySet();
+    // Set while a commit-triggered refresh is waiting to run, so a burst of saves shares one
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private volatile ScheduledExecutorService scheduler;
+
+    public SurveyRollupEngine(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Refresh now and then every intervalSeconds on a background thread
+     */
+    public void start(long intervalSeconds) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "survey-rollup");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        // Fold in days saved since the last refresh; they are only tracked in memory
+        if (!dirtyDays.isEmpty()) {
+            try {
+                refresh();
+            } catch (SQLException e) {
+                System.err.println("Error refreshing survey rollups: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Note the day of a newly committed survey response and queue a refresh on the rollup thread
+     */
+    public void record(SurveyResponse response) {
+        if (response.getSurveyDate() == null) return;
+        dirtyDays.add(response.getSurveyDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null && refreshQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::refreshQuietly);
+            } catch (RejectedExecutionException e) {
+                // Stopping; stop() folds in the remaining days
+                refreshQueued.set(false);
+            }
+        }
+    }
+
+    private void refreshQuietly() {
+        // Cleared first: days reported while this refresh runs queue the next one
+        refreshQueued.set(false);
+        try {
+            refresh();
+        } catch (SQLException e) {
+            System.err.println("Error refreshing survey rollups: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the day rows for every day that received responses since the last refresh
+     * @return number of days recomputed
+     */
+    public synchronized int refresh() throws SQLException {
+        // Taken before reading any rows: a day reported after this point is rebuilt next time
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (LocalDate day : dirtyDays) {
+            dirtyDays.remove(day);
+            days.add(day);
+        }
+
+        try (Connection conn = dbManager.getConnection()) {
+            int lastSurveyId = readWatermark(conn);
+
+            // Fix the upper bound first so rows inserted during the refresh wait for the next one
+            int maxSurveyId = lastSurveyId;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT MAX(survey_id) FROM survey_responses WHERE survey_id > ?")) {
+                stmt.setInt(1, lastSurveyId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next() && rs.getObject(1) != null) {
+                        maxSurveyId = rs.getInt(1);
+                    }
+                }
+            }
+
+            if (maxSurveyId == lastSurveyId && days.isEmpty()) {
+                return 0;
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT DISTINCT CAST(survey_date AS DATE) AS survey_day FROM survey_responses " +
+                    "WHERE survey_id > ? AND survey_id <= ?")) {
+                stmt.setInt(1, lastSurveyId);
+                stmt.setInt(2, maxSurveyId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Date day = rs.getDate("survey_day");
+                        if (day != null) days.add(day.toLocalDate());
+                    }
+                }
+            }
+
+            conn.setAutoCommit(false);
+            try {
+                for (LocalDate day : days) {
+                    rebuildDay(conn, day);
+                }
+                writeWatermark(conn, maxSurveyId);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            return days.size();
+        } catch (SQLException e) {
+            // Keep the reported days for the next attempt
+            dirtyDays.addAll(days);
+            throw e;
+        }
+    }
+
+    /**
+     * Replace one day's row with totals recomputed from survey_responses
+     */
+    private void rebuildDay(Connection conn, LocalDate day) throws SQLException {
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM survey_analytics WHERE calculation_date = ?")) {
+            delete.setDate(1, Date.valueOf(day));
+            delete.executeUpdate();
+        }
+
+        try (PreparedStatement totalsStmt = conn.prepareStatement(DAY_TOTALS_SQL)) {
+            totalsStmt.setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+            totalsStmt.setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+
+            try (ResultSet rs = totalsStmt.executeQuery();
+                 PreparedStatement insert = conn.prepareStatement(INSERT_DAY_SQL)) {
+                if (!rs.next() || rs.getLong("total_responses") == 0) return;
+
+                MetricTotals totals = readTotals(rs);
+                insert.setDate(1, Date.valueOf(day));
+                insert.setLong(2, totals.responseCount);
+                insert.setDouble(3, round2(totals.getAverageSatisfaction()));
+                insert.setDouble(4, round2(totals.getSatisfactionRate()));
+                Double nps = totals.getNpsScore();
+                insert.setDouble(5, nps != null ? round2(nps) : 0);
+                insert.setDouble(6, round2(MetricTotals.average(totals.foodQualitySum, totals.responseCount)));
+                insert.setDouble(7, round2(MetricTotals.average(totals.serviceQualitySum, totals.responseCount)));
+                insert.setDouble(8, round2(MetricTotals.average(totals.hygieneSum, totals.responseCount)));
+                insert.setDouble(9, round2(MetricTotals.average(totals.valueForMoneySum, totals.responseCount)));
+                insert.setLong(10, totals.satisfactionSum);
+                for (int i = 0; i < MetricTotals.SATISFACTION_LEVELS.length; i++) {
+                    insert.setLong(11 + i, totals.distribution.getOrDefault(MetricTotals.SATISFACTION_LEVELS[i], 0L));
+                }
+                insert.setLong(16, totals.foodQualitySum);
+                insert.setLong(17, totals.serviceQualitySum);
+                insert.setLong(18, totals.hygieneSum);
+                insert.setLong(19, totals.valueForMoneySum);
+                insert.setLong(20, totals.npsSum);
+                insert.setLong(21, totals.npsCount);
+                insert.setLong(22, totals.promoterCount);
+                insert.setLong(23, totals.detractorCount);
+                insert.setTimestamp(24, new Timestamp(System.currentTimeMillis()));
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Sum the day rows between from and to (inclusive), grouped by calendar month
+     */
+    public TreeMap<YearMonth, MetricTotals> monthlyTotalsBetween(LocalDate from, LocalDate to) throws SQLException {
+        TreeMap<YearMonth, MetricTotals> months = new TreeMap<>();
+        for (Map.Entry<LocalDate, MetricTotals> day : dailyTotalsBetween(from, to).entrySet()) {
+            months.computeIfAbsent(YearMonth.from(day.getKey()), m -> new MetricTotals()).add(day.getValue());
+        }
+        return months;
+    }
+
+    /**
+     * Read the day rows between from and to (inclusive)
+     */
+    public TreeMap<LocalDate, MetricTotals> dailyTotalsBetween(LocalDate from, LocalDate to) throws SQLException {
+        TreeMap<LocalDate, MetricTotals> days = new TreeMap<>();
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(RANGE_SQL)) {
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    days.put(rs.getDate("calculation_date").toLocalDate(), readTotals(rs));
+                }
+            }
+        }
+
+        return days;
+    }
+
+    /**
+     * Read a totals row (from DAY_TOTALS_SQL or survey_analytics)
+     */
+    private MetricTotals readTotals(ResultSet rs) throws SQLException {
+        MetricTotals totals = new MetricTotals();
+        totals.responseCount = rs.getLong("total_responses");
+        totals.satisfactionSum = rs.getLong("satisfaction_sum");
+        totals.foodQualitySum = rs.getLong("food_quality_sum");
+        totals.serviceQualitySum = rs.getLong("service_quality_sum");
+        totals.hygieneSum = rs.getLong("hygiene_sum");
+        totals.valueForMoneySum = rs.getLong("value_for_money_sum");
+        totals.npsSum = rs.getLong("nps_sum");
+        totals.npsCount = rs.getLong("nps_count");
+        totals.promoterCount = rs.getLong("promoter_count");
+        totals.detractorCount = rs.getLong("detractor_count");
+
+        String[] countColumns = {
+            "highly_satisfied_count", "satisfied_count", "neutral_count", "dissatisfied_count", "highly_dissatisfied_count"
+        };
+        for (int i = 0; i < countColumns.length; i++) {
+            long count = rs.getLong(countColumns[i]);
+            if (count > 0) {
+                totals.distribution.put(MetricTotals.SATISFACTION_LEVELS[i], count);
+            }
+        }
+        return totals;
+    }
+
+    private int readWatermark(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT last_survey_id FROM survey_rollup_state WHERE rollup_name = ?")) {
+            stmt.setString(1, ROLLUP_NAME);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private void writeWatermark(Connection conn, int lastSurveyId) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE survey_rollup_state SET last_survey_id = ?, refreshed_on = ? WHERE rollup_name = ?")) {
+            update.setInt(1, lastSurveyId);
+            update.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+            update.setString(3, ROLLUP_NAME);
+            if (update.executeUpdate() > 0) return;
+        }
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO survey_rollup_state (rollup_name, last_survey_id, refreshed_on) VALUES (?, ?, ?)")) {
+            insert.setString(1, ROLLUP_NAME);
+            insert.setInt(2, lastSurveyId);
+            insert.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            insert.executeUpdate();
+        }
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -1,95 +1,252 @@
 package com.customerdashboard.backend;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.MultipartConfig;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 import javax.servlet.http.Part;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * SurveyServlet handles customer satisfaction survey operations
  * Provides REST API endpoints for survey data management and analytics
  */
-@WebServlet("/api/survey/*")
-@MultipartConfig(maxFileSize = 16177215) // 16MB max file size
+@WebServlet(urlPatterns = "/api/survey/*", asyncSupported = true)
+@MultipartConfig(fileSizeThreshold = 1048576, maxFileSize = 268435456) // Spool parts over 1MB to disk, 256MB max file size
 public class SurveyServlet extends HttpServlet {
     private static final long serialVersionUID = 1L;
+    // Rows written between flushes when streaming survey listings
+    private static final int STREAM_FLUSH_ROWS = 200;
+    // Lower bound for date ranges given only a "to" date
+    private static final LocalDate EARLIEST_SURVEY_DATE = LocalDate.of(1900, 1, 1);
+    // Span of /trends when no "from" date is given
+    private static final int DEFAULT_TREND_MONTHS = 12;
+    private static final int MAX_AT_RISK_LIMIT = 500;
+    // Fields returned when no fields parameter is given
+    private static final Set<String> DEFAULT_METRICS_FIELDS = Set.of(
+        SurveyMetricsEngine.TOTAL_RESPONSES, SurveyMetricsEngine.SATISFACTION_RATE, SurveyMetricsEngine.NPS_SCORE);
+    private static final Set<String> ANALYTICS_FIELDS = Set.of(
+        SurveyMetricsEngine.AVERAGES, SurveyMetricsEngine.DISTRIBUTION, SurveyMetricsEngine.MONTHLY_TRENDS);
+    // Totals pushed to /stream clients with every update
+    private static final Set<String> STREAM_FIELDS = Set.of(
+        SurveyMetricsEngine.AVERAGES, SurveyMetricsEngine.SATISFACTION_RATE, SurveyMetricsEngine.NPS_SCORE,
+        SurveyMetricsEngine.NPS_BREAKDOWN, SurveyMetricsEngine.DISTRIBUTION);
     private DatabaseManager dbManager;
     private Gson gson;
     private ExcelProcessor excelProcessor;
+    private SurveyAggregates aggregates;
+    private SurveyDailyTotals dailyTotals;
+    private CustomerProfileIndex customerProfiles;
+    private SurveySketches sketches;
+    private SurveyBatchWriter batchWriter;
+    private ExecutorService parserExecutor;
+    private SurveyIngestPipeline ingestPipeline;
+    private UploadJobManager uploadJobs;
+    private int maxUploadFiles;
+    private SurveyRollupEngine rollupEngine;
+    private SurveyMetricsEngine metricsEngine;
+    private SurveyEventBroadcaster eventBroadcaster;
+    private DatabaseTaskExecutor dbExecutor;
+    private long requestTimeoutMillis;
+    private long handlerTimeoutMillis;
+    // Bumped after every committed insert; ETags embed it, plus the startup time so restarts invalidate them
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final long versionEpoch = System.currentTimeMillis();
+    private volatile long lastModified = versionEpoch;
 
     @Override
     public void init() throws ServletException {
         super.init();
-        dbManager = new DatabaseManager();
+        dbManager = new SurveyDatabaseManager();
         gson = new Gson();
         excelProcessor = new ExcelProcessor();
+        
+        aggregates = new SurveyAggregates();
+        try {
+            aggregates.seed(dbManager);
+        } catch (SQLException e) {
+            throw new ServletException("Unable to load survey aggregates", e);
+        }
+        
+        sketches = new SurveySketches();
+        try {
+            sketches.seed(dbManager);
+        } catch (SQLException e) {
+            throw new ServletException("Unable to load survey sketches", e);
+        }
+        
+        customerProfiles = new CustomerProfileIndex();
+        try {
+            customerProfiles.seed(dbManager);
+        } catch (SQLException e) {
+            throw new ServletException("Unable to load customer profiles", e);
+        }
+        
+        if (Boolean.parseBoolean(dbManager.getProperty("store.dailyTotals.enabled", "true"))) {
+            dailyTotals = new SurveyDailyTotals();
+            try {
+                dailyTotals.load(dbManager);
+            } catch (SQLException e) {
+                throw new ServletException("Unable to load survey daily totals", e);
+            }
+        }
+        
+        SurveyDeduplicator deduplicator = new SurveyDeduplicator(
+            dbManager, dbManager.getIntProperty("dedup.expectedRows", 1000000));
+        try {
+            deduplicator.seed();
+        } catch (SQLException e) {
+            throw new ServletException("Unable to load survey fingerprints", e);
+        }
+        
+        batchWriter = new SurveyBatchWriter(dbManager, deduplicator);
+        batchWriter.addCommitListener(this::onSurveysSaved);
+        
+        parserExecutor = Executors.newFixedThreadPool(
+            dbManager.getIntProperty("upload.parserThreads", 4), daemonThreads("upload-parser"));
+        ingestPipeline = new SurveyIngestPipeline(
+            batchWriter, parserExecutor, dbManager.getIntProperty("upload.queueCapacity", 2000));
+        maxUploadFiles = dbManager.getIntProperty("upload.maxFiles", 20);
+        uploadJobs = new UploadJobManager(
+            dbManager.getIntProperty("upload.jobThreads", 2),
+            dbManager.getIntProperty("upload.maxQueuedJobs", 20),
+            dbManager.getIntProperty("upload.jobRetentionMinutes", 60) * 60_000L);
+        
+        rollupEngine = new SurveyRollupEngine(dbManager);
+        rollupEngine.start(dbManager.getIntProperty("rollup.intervalSeconds", 60));
+        metricsEngine = new SurveyMetricsEngine(aggregates, rollupEngine, dailyTotals, sketches);
+        // One worker per pooled connection, so admitted handlers never queue on the pool
+        ConnectionPool pool = dbManager.getConnectionPool();
+        dbExecutor = new DatabaseTaskExecutor(
+            dbManager.getIntProperty("db.executor.threads", pool != null ? pool.getMaxActive() : 20),
+            dbManager.getIntProperty("db.executor.maxQueued", 200),
+            Boolean.parseBoolean(dbManager.getProperty("db.executor.virtualThreads", "true")));
+        requestTimeoutMillis = dbManager.getIntProperty("db.executor.queueTimeoutMillis", 10000);
+        handlerTimeoutMillis = dbManager.getIntProperty("db.executor.handlerTimeoutMillis", 120000);
+        
+        eventBroadcaster = new SurveyEventBroadcaster(
+            () -> metricsEngine.compute(STREAM_FIELDS),
+            dbManager.getIntProperty("events.maxClients", 500),
+            dbManager.getIntProperty("events.maxQueuedEvents", 16),
+            dbManager.getIntProperty("events.publishIntervalMillis", 1000),
+            dbManager.getIntProperty("events.heartbeatSeconds", 15));
     }
 
     /**
      * GET method to retrieve survey data and analytics
      * Endpoints:
-     * - /api/survey/data - Get all survey responses
-     * - /api/survey/analytics - Get analytics summary
-     * - /api/survey/metrics - Get key metrics
+     * - /api/survey/data - Get survey responses, newest first (X-Next-Cursor header for the next page)
+     * - /api/survey/analytics - Get analytics summary (optional from/to dates)
+     * - /api/survey/metrics - Get key metrics (optional from/to dates and fields selector)
+     * - /api/survey/trends - Get per-bucket averages (from/to dates, granularity day/week/month/quarter)
+     * - /api/survey/customers/{id} - Get one customer's satisfaction profile
+     * - /api/survey/customers/at-risk - Get the most at-risk customers (optional limit)
+     * - /api/survey/upload/{id} - Get upload job progress
+     * - /api/survey/stream - Server-Sent Events stream of live metric updates
+     * Data, analytics and metrics responses carry an ETag; a matching If-None-Match gets 304
      */
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
+        String pathInfo = request.getPathInfo();
+        if ("/stream".equals(pathInfo)) {
+            openEventStream(request, response);
+            return;
+        }
+        
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
         response.setHeader("Access-Control-Allow-Origin", "*");
         
-        String pathInfo = request.getPathInfo();
-        PrintWriter out = response.getWriter();
-
-        try {
+        if (isVersionedPath(pathInfo)) {
+            // Payloads only change when surveys are saved, so let clients revalidate cheaply
+            String etag = currentEtag(request);
+            response.setHeader("ETag", etag);
+            response.setHeader("Cache-Control", "no-cache");
+            if (etagMatches(request.getHeader("If-None-Match"), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        
+        boolean databaseBound = pathInfo == null || pathInfo.equals("/") || pathInfo.equals("/data")
+            || (("/analytics".equals(pathInfo) || "/metrics".equals(pathInfo))
+                && hasDateRange(request) && dailyTotals == null)
+            || ("/trends".equals(pathInfo) && dailyTotals == null);
+        
+        dispatch(request, response, databaseBound, (res, out) -> {
             if (pathInfo == null || pathInfo.equals("/") || pathInfo.equals("/data")) {
                 // Get survey data with optional filters
-                getSurveyData(request, response, out);
+                getSurveyData(request, res, out);
             } else if ("/analytics".equals(pathInfo)) {
                 // Get analytics summary
-                getSurveyAnalytics(request, response, out);
+                getSurveyAnalytics(request, res, out);
             } else if ("/metrics".equals(pathInfo)) {
                 // Get key metrics
-                getSurveyMetrics(request, response, out);
+                getSurveyMetrics(request, res, out);
+            } else if ("/trends".equals(pathInfo)) {
+                // Get time-bucketed trends
+                getSurveyTrends(request, res, out);
+            } else if ("/customers/at-risk".equals(pathInfo)) {
+                // Get the customers with the highest risk scores
+                getAtRiskCustomers(request, res, out);
+            } else if (pathInfo.startsWith("/customers/")) {
+                // Get one customer's satisfaction profile
+                getCustomerProfile(pathInfo.substring("/customers/".length()), res, out);
+            } else if (pathInfo.startsWith("/upload/")) {
+                // Get upload job progress
+                getUploadStatus(pathInfo.substring("/upload/".length()), res, out);
             } else {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                res.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 JsonObject error = new JsonObject();
                 error.addProperty("error", "Endpoint not found");
                 out.print(gson.toJson(error));
             }
-        } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            JsonObject error = new JsonObject();
-            error.addProperty("error", "Internal server error: " + e.getMessage());
-            out.print(gson.toJson(error));
-        } finally {
-            out.close();
-        }
+        });
     }
 
     /**
      * POST method to upload survey data or create new responses
      * Endpoints:
-     * - /api/survey/upload - Upload Excel file with survey data
+     * - /api/survey/upload - Upload one or more Excel/CSV files with survey data (processed asynchronously)
+     * - /api/survey/import - Import a raw CSV request body (processed while the request streams in)
      * - /api/survey/response - Create new survey response
      */
     @Override
@@ -101,21 +258,192 @@ public class SurveyServlet extends HttpServlet {
         response.setHeader("Access-Control-Allow-Origin", "*");
         
         String pathInfo = request.getPathInfo();
-        PrintWriter out = response.getWriter();
-
-        try {
+        boolean databaseBound = "/upload".equals(pathInfo) || "/import".equals(pathInfo)
+            || "/response".equals(pathInfo);
+        
+        dispatch(request, response, databaseBound, (res, out) -> {
             if ("/upload".equals(pathInfo)) {
                 // Handle Excel file upload
-                handleFileUpload(request, response, out);
+                handleFileUpload(request, res, out);
+            } else if ("/import".equals(pathInfo)) {
+                // Import CSV straight from the request body
+                handleCsvImport(request, res, out);
             } else if ("/response".equals(pathInfo)) {
                 // Create new survey response
-                createSurveyResponse(request, response, out);
+                createSurveyResponse(request, res, out);
             } else {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                res.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 JsonObject error = new JsonObject();
                 error.addProperty("error", "Endpoint not found");
                 out.print(gson.toJson(error));
             }
+        });
+    }
+
+    /**
+     * Handler body that writes a JSON response
+     */
+    private interface RequestHandler {
+        void handle(HttpServletResponse response, PrintWriter out) throws Exception;
+    }
+
+    /**
+     * Run a handler inline, or for database-bound handlers on the DB executor
+     * The container thread is released while the handler waits for a worker; requests
+     * are rejected with 503 when the queue is full or the wait exceeds the timeout, and
+     * answered with 503 when the handler has not finished within the request timeout
+     */
+    private void dispatch(HttpServletRequest request, HttpServletResponse response,
+                          boolean databaseBound, RequestHandler handler) throws IOException {
+        if (!databaseBound || !request.isAsyncSupported()) {
+            processRequest(response, handler);
+            return;
+        }
+        
+        AsyncContext asyncContext = request.startAsync();
+        AsyncHandlerResponse handlerResponse = new AsyncHandlerResponse(response);
+        // The executor enforces the wait for a worker; this bounds the whole request
+        asyncContext.setTimeout(requestTimeoutMillis + handlerTimeoutMillis);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                if (handlerResponse.detach()) {
+                    System.err.println("DB handler timed out; discarding its output");
+                    if (!response.isCommitted()) {
+                        response.resetBuffer();
+                        sendUnavailable(response, "Timed out waiting for the database");
+                    }
+                    asyncContext.complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+                // Nothing to do
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                handlerResponse.detach();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // Nothing to do
+            }
+        });
+        try {
+            dbExecutor.submit(() -> {
+                try {
+                    processRequest(handlerResponse, handler);
+                } catch (IOException e) {
+                    System.err.println("Error writing response: " + e.getMessage());
+                } finally {
+                    if (handlerResponse.detach()) {
+                        asyncContext.complete();
+                    }
+                }
+            }, requestTimeoutMillis, () -> {
+                if (handlerResponse.detach()) {
+                    sendUnavailable(response, "Timed out waiting for a database worker");
+                    asyncContext.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            handlerResponse.detach();
+            sendUnavailable(response, "Server is busy, try again later");
+            asyncContext.complete();
+        }
+    }
+
+    /**
+     * Response handed to a handler running on the DB executor
+     * Once the request has been answered some other way (timeout, error) or the handler has
+     * finished, the wrapper is detached and later writes and status or header changes are
+     * dropped, since the container may already be reusing the underlying response
+     */
+    private static class AsyncHandlerResponse extends HttpServletResponseWrapper {
+        private boolean detached;
+        private PrintWriter writer;
+
+        AsyncHandlerResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        /**
+         * Stop passing anything through
+         * @return true for the first caller, which then owns completing the request
+         */
+        synchronized boolean detach() {
+            if (detached) return false;
+            detached = true;
+            return true;
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter target = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] chars, int off, int len) {
+                        synchronized (AsyncHandlerResponse.this) {
+                            if (!detached) target.write(chars, off, len);
+                        }
+                    }
+
+                    @Override
+                    public void flush() {
+                        synchronized (AsyncHandlerResponse.this) {
+                            if (!detached) target.flush();
+                        }
+                    }
+
+                    @Override
+                    public void close() {
+                        synchronized (AsyncHandlerResponse.this) {
+                            if (!detached) target.close();
+                        }
+                    }
+                });
+            }
+            return writer;
+        }
+
+        @Override
+        public synchronized void setStatus(int sc) {
+            if (!detached) super.setStatus(sc);
+        }
+
+        @Override
+        public synchronized void setHeader(String name, String value) {
+            if (!detached) super.setHeader(name, value);
+        }
+
+        @Override
+        public synchronized void setContentType(String type) {
+            if (!detached) super.setContentType(type);
+        }
+
+        @Override
+        public synchronized void setCharacterEncoding(String charset) {
+            if (!detached) super.setCharacterEncoding(charset);
+        }
+
+        @Override
+        public synchronized void resetBuffer() {
+            if (!detached) super.resetBuffer();
+        }
+    }
+
+    /**
+     * Helper method to run a handler with the standard error handling
+     */
+    private void processRequest(HttpServletResponse response, RequestHandler handler) throws IOException {
+        PrintWriter out = response.getWriter();
+
+        try {
+            handler.handle(response, out);
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             JsonObject error = new JsonObject();
@@ -126,6 +454,23 @@ public class SurveyServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Helper method to reject a request with 503 and a short Retry-After
+     */
+    private void sendUnavailable(HttpServletResponse response, String message) {
+        try {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            JsonObject error = new JsonObject();
+            error.addProperty("error", message);
+            PrintWriter out = response.getWriter();
+            out.print(gson.toJson(error));
+            out.close();
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Error writing 503 response: " + e.getMessage());
+        }
+    }
+
     /**
      * OPTIONS method for CORS support
      */
@@ -139,70 +484,137 @@ public class SurveyServlet extends HttpServlet {
     }
 
     /**
-     * Get survey data with optional filtering
+     * Get survey data with optional filtering, as a JSON array
+     * Pages are keyed on (survey_date, survey_id): when more rows follow, the
+     * X-Next-Cursor header carries the value to pass as the cursor parameter for the
+     * next page. offset is still accepted for the first request but scans and
+     * discards the skipped rows
      */
     private void getSurveyData(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
         String dateFilter = request.getParameter("dateFilter");
         String ratingFilter = request.getParameter("ratingFilter");
-        int limit = getIntParameter(request, "limit", 1000);
+        String cursor = request.getParameter("cursor");
+        int limit = Math.max(1, getIntParameter(request, "limit", 1000));
         int offset = getIntParameter(request, "offset", 0);
 
+        Object[] cursorKey = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            cursorKey = decodeCursor(cursor);
+            if (cursorKey == null) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                JsonObject error = new JsonObject();
+                error.addProperty("error", "Invalid cursor");
+                out.print(gson.toJson(error));
+                return;
+            }
+        }
+
+        StringBuilder sql = new StringBuilder(
+            "SELECT survey_id, customer_id, survey_date, food_quality, service_quality, " +
+            "hygiene, value_for_money, overall_satisfaction, comments, nps_score " +
+            "FROM survey_responses WHERE 1=1"
+        );
+        
+        List<Object> parameters = new ArrayList<>();
+        
+        // Apply date filter
+        Timestamp since = dateFilterStart(dateFilter);
+        if (since != null) {
+            sql.append(" AND survey_date >= ?");
+            parameters.add(since);
+        }
+        
+        // Apply rating filter
+        if (ratingFilter != null && !ratingFilter.equals("all")) {
+            sql.append(" AND overall_satisfaction = ?");
+            parameters.add(ratingFilter.replace("-", " "));
+        }
+        
+        // Continue after the last row of the previous page
+        // (the survey_date <= ? term gives the index a range bound to seek to)
+        if (cursorKey != null) {
+            sql.append(" AND survey_date <= ? AND (survey_date < ? OR survey_id < ?)");
+            parameters.add(cursorKey[0]);
+            parameters.add(cursorKey[0]);
+            parameters.add(cursorKey[1]);
+        }
+        int skip = cursorKey == null ? Math.max(0, offset) : 0;
+
         try (Connection conn = dbManager.getConnection()) {
-            StringBuilder sql = new StringBuilder(
-                "SELECT survey_id, customer_id, survey_date, food_quality, service_quality, " +
-                "hygiene, value_for_money, overall_satisfaction, comments, nps_score " +
-                "FROM survey_responses WHERE 1=1"
-            );
-            
-            List<String> parameters = new ArrayList<>();
-            
-            // Apply date filter
-            if (dateFilter != null && !dateFilter.equals("all")) {
-                switch (dateFilter) {
-                    case "last-30":
-                        sql.append(" AND survey_date >= DATE_SUB(NOW(), INTERVAL 30 DAY)");
-                        break;
-                    case "last-90":
-                        sql.append(" AND survey_date >= DATE_SUB(NOW(), INTERVAL 90 DAY)");
-                        break;
-                    case "last-year":
-                        sql.append(" AND survey_date >= DATE_SUB(NOW(), INTERVAL 1 YEAR)");
-                        break;
+            // The cursor goes out in a header, so find the page's last key before streaming:
+            // an index-only read of the keys at positions limit and limit + 1
+            String nextCursor = null;
+            String keySql = sql.toString().replaceFirst("SELECT .* FROM", "SELECT survey_date, survey_id FROM")
+                + " ORDER BY survey_date DESC, survey_id DESC LIMIT 2 OFFSET ?";
+            try (PreparedStatement stmt = conn.prepareStatement(keySql)) {
+                bindParameters(stmt, parameters);
+                stmt.setLong(parameters.size() + 1, (long) skip + limit - 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        Timestamp lastDate = rs.getTimestamp("survey_date");
+                        int lastId = rs.getInt("survey_id");
+                        if (rs.next()) {
+                            nextCursor = encodeCursor(lastDate, lastId);
+                            // Bound the page by key rather than by count, so rows saved in the
+                            // meantime can only add to this page, never slip past the cursor
+                            sql.append(" AND (survey_date > ? OR (survey_date = ? AND survey_id >= ?))");
+                            parameters.add(lastDate);
+                            parameters.add(lastDate);
+                            parameters.add(lastId);
+                        }
+                    }
                 }
             }
-            
-            // Apply rating filter
-            if (ratingFilter != null && !ratingFilter.equals("all")) {
-                sql.append(" AND overall_satisfaction = ?");
-                parameters.add(ratingFilter.replace("-", " "));
+
+            sql.append(" ORDER BY survey_date DESC, survey_id DESC");
+            if (nextCursor == null) {
+                sql.append(" LIMIT ?");
+                parameters.add(limit);
             }
-            
-            sql.append(" ORDER BY survey_date DESC LIMIT ? OFFSET ?");
-            parameters.add(String.valueOf(limit));
-            parameters.add(String.valueOf(offset));
-            
-            PreparedStatement stmt = conn.prepareStatement(sql.toString());
-            int paramIndex = 1;
-            for (String param : parameters) {
-                if (param.equals(String.valueOf(limit)) || param.equals(String.valueOf(offset))) {
-                    stmt.setInt(paramIndex++, Integer.parseInt(param));
-                } else {
-                    stmt.setString(paramIndex++, param);
+            if (skip > 0) {
+                sql.append(nextCursor == null ? " OFFSET ?" : " OFFSET ? ROWS");
+                parameters.add(skip);
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                bindParameters(stmt, parameters);
+                stmt.setFetchSize(Math.min(limit, STREAM_FLUSH_ROWS));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    // Rows are written straight from the ResultSet; no Content-Length, so the
+                    // container switches to chunked transfer once the first flush goes out
+                    response.setStatus(HttpServletResponse.SC_OK);
+                    if (nextCursor != null) {
+                        response.setHeader("X-Next-Cursor", nextCursor);
+                        response.setHeader("Access-Control-Expose-Headers", "X-Next-Cursor");
+                    }
+                    JsonWriter writer = new JsonWriter(out);
+                    writer.beginArray();
+
+                    int written = 0;
+                    while (rs.next()) {
+                        writeSurveyJson(writer, rs);
+                        if (++written % STREAM_FLUSH_ROWS == 0) {
+                            writer.flush();
+                            if (out.checkError()) {
+                                // Client went away; stop reading rows
+                                return;
+                            }
+                        }
+                    }
+
+                    writer.endArray();
+                    writer.flush();
                 }
             }
             
-            ResultSet rs = stmt.executeQuery();
-            JsonArray surveyArray = new JsonArray();
-            
-            while (rs.next()) {
-                JsonObject survey = createSurveyJson(rs);
-                surveyArray.add(survey);
+        } catch (SQLException | IOException e) {
+            if (response.isCommitted()) {
+                // Part of the body is already on the wire; all we can do is cut the response short
+                System.err.println("Error streaming survey data: " + e.getMessage());
+                return;
             }
-            
-            out.print(gson.toJson(surveyArray));
-            response.setStatus(HttpServletResponse.SC_OK);
-            
-        } catch (SQLException e) {
+            response.resetBuffer();
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             JsonObject error = new JsonObject();
             error.addProperty("error", "Database error: " + e.getMessage());
@@ -210,93 +622,102 @@ public class SurveyServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Helper method to turn a dateFilter value into the earliest survey_date to include
+     */
+    private Timestamp dateFilterStart(String dateFilter) {
+        if (dateFilter == null) return null;
+        
+        LocalDateTime now = LocalDateTime.now();
+        switch (dateFilter) {
+            case "last-30":
+                return Timestamp.valueOf(now.minusDays(30));
+            case "last-90":
+                return Timestamp.valueOf(now.minusDays(90));
+            case "last-year":
+                return Timestamp.valueOf(now.minusYears(1));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Helper method to bind positional parameters in order
+     */
+    private static void bindParameters(PreparedStatement stmt, List<Object> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            stmt.setObject(i + 1, parameters.get(i));
+        }
+    }
+
+    /**
+     * Helper method to encode a page position as an opaque cursor
+     */
+    static String encodeCursor(Timestamp surveyDate, int surveyId) {
+        String key = surveyDate.getTime() + ":" + surveyDate.getNanos() + ":" + surveyId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Helper method to decode a cursor into {Timestamp surveyDate, Integer surveyId}, or null if malformed
+     */
+    static Object[] decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split(":");
+            if (parts.length != 3) return null;
+            
+            Timestamp surveyDate = new Timestamp(Long.parseLong(parts[0]));
+            surveyDate.setNanos(Integer.parseInt(parts[1]));
+            return new Object[] { surveyDate, Integer.parseInt(parts[2]) };
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Get survey analytics summary
+     * Averages, distribution and monthly trends from the metrics engine
      */
     private void getSurveyAnalytics(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
-        try (Connection conn = dbManager.getConnection()) {
-            JsonObject analytics = new JsonObject();
-            
-            // Overall metrics
-            String metricsSQL = """
-                SELECT 
-                    COUNT(*) as total_responses,
-                    AVG(CASE overall_satisfaction 
-                        WHEN 'Highly Satisfied' THEN 5
-                        WHEN 'Satisfied' THEN 4
-                        WHEN 'Neutral' THEN 3
-                        WHEN 'Dissatisfied' THEN 2
-                        WHEN 'Highly Dissatisfied' THEN 1
-                        ELSE 3 END) as avg_satisfaction,
-                    AVG(food_quality) as avg_food_quality,
-                    AVG(service_quality) as avg_service_quality,
-                    AVG(hygiene) as avg_hygiene,
-                    AVG(value_for_money) as avg_value_for_money,
-                    AVG(nps_score) as avg_nps
-                FROM survey_responses
-            """;
-            
-            PreparedStatement metricsStmt = conn.prepareStatement(metricsSQL);
-            ResultSet metricsRs = metricsStmt.executeQuery();
-            
-            if (metricsRs.next()) {
-                analytics.addProperty("totalResponses", metricsRs.getInt("total_responses"));
-                analytics.addProperty("avgSatisfaction", metricsRs.getDouble("avg_satisfaction"));
-                analytics.addProperty("avgFoodQuality", metricsRs.getDouble("avg_food_quality"));
-                analytics.addProperty("avgServiceQuality", metricsRs.getDouble("avg_service_quality"));
-                analytics.addProperty("avgHygiene", metricsRs.getDouble("avg_hygiene"));
-                analytics.addProperty("avgValueForMoney", metricsRs.getDouble("avg_value_for_money"));
-                analytics.addProperty("avgNPS", metricsRs.getDouble("avg_nps"));
-            }
-            
-            // Satisfaction distribution
-            String distributionSQL = """
-                SELECT overall_satisfaction, COUNT(*) as count 
-                FROM survey_responses 
-                GROUP BY overall_satisfaction
-            """;
-            
-            PreparedStatement distStmt = conn.prepareStatement(distributionSQL);
-            ResultSet distRs = distStmt.executeQuery();
-            
-            JsonObject distribution = new JsonObject();
-            while (distRs.next()) {
-                distribution.addProperty(distRs.getString("overall_satisfaction"), distRs.getInt("count"));
-            }
-            analytics.add("satisfactionDistribution", distribution);
-            
-            // Monthly trends (last 12 months)
-            String trendsSQL = """
-                SELECT 
-                    DATE_FORMAT(survey_date, '%Y-%m') as month,
-                    AVG(CASE overall_satisfaction 
-                        WHEN 'Highly Satisfied' THEN 5
-                        WHEN 'Satisfied' THEN 4
-                        WHEN 'Neutral' THEN 3
-                        WHEN 'Dissatisfied' THEN 2
-                        WHEN 'Highly Dissatisfied' THEN 1
-                        ELSE 3 END) as avg_satisfaction,
-                    COUNT(*) as response_count
-                FROM survey_responses 
-                WHERE survey_date >= DATE_SUB(NOW(), INTERVAL 12 MONTH)
-                GROUP BY DATE_FORMAT(survey_date, '%Y-%m')
-                ORDER BY month
-            """;
-            
-            PreparedStatement trendsStmt = conn.prepareStatement(trendsSQL);
-            ResultSet trendsRs = trendsStmt.executeQuery();
-            
-            JsonArray trends = new JsonArray();
-            while (trendsRs.next()) {
-                JsonObject monthData = new JsonObject();
-                monthData.addProperty("month", trendsRs.getString("month"));
-                monthData.addProperty("avgSatisfaction", trendsRs.getDouble("avg_satisfaction"));
-                monthData.addProperty("responseCount", trendsRs.getInt("response_count"));
-                trends.add(monthData);
-            }
-            analytics.add("monthlyTrends", trends);
-            
-            out.print(gson.toJson(analytics));
+        writeMetrics(request, response, out, ANALYTICS_FIELDS);
+    }
+
+    /**
+     * Get key survey metrics
+     * The fields parameter selects KPIs (comma-separated, or "all"), so one request covers a dashboard refresh
+     */
+    private void getSurveyMetrics(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
+        writeMetrics(request, response, out, DEFAULT_METRICS_FIELDS);
+    }
+
+    /**
+     * Helper method to write the selected metrics, all-time or for a from/to date range
+     */
+    private void writeMetrics(HttpServletRequest request, HttpServletResponse response, PrintWriter out,
+                              Set<String> defaultFields) {
+        Set<String> fields;
+        try {
+            fields = SurveyMetricsEngine.parseFields(request.getParameter("fields"), defaultFields);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            JsonObject error = new JsonObject();
+            error.addProperty("error", e.getMessage());
+            out.print(gson.toJson(error));
+            return;
+        }
+        
+        if (!hasDateRange(request)) {
+            out.print(gson.toJson(metricsEngine.compute(fields)));
+            response.setStatus(HttpServletResponse.SC_OK);
+            return;
+        }
+        
+        LocalDate[] range = getDateRange(request, response, out);
+        if (range == null) return;
+        
+        try {
+            out.print(gson.toJson(metricsEngine.compute(fields, range[0], range[1])));
             response.setStatus(HttpServletResponse.SC_OK);
             
         } catch (SQLException e) {
@@ -308,59 +729,27 @@ public class SurveyServlet extends HttpServlet {
     }
 
     /**
-     * Get key survey metrics
+     * Get rating and NPS trends bucketed by day, week, month or quarter
+     * Defaults to monthly buckets over the 12 months up to today
      */
-    private void getSurveyMetrics(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
-        try (Connection conn = dbManager.getConnection()) {
-            JsonObject metrics = new JsonObject();
-            
-            // Calculate satisfaction rate
-            String satisfactionSQL = """
-                SELECT 
-                    COUNT(*) as total,
-                    SUM(CASE WHEN overall_satisfaction IN ('Satisfied', 'Highly Satisfied') THEN 1 ELSE 0 END) as satisfied
-                FROM survey_responses
-            """;
-            
-            PreparedStatement satisfactionStmt = conn.prepareStatement(satisfactionSQL);
-            ResultSet satisfactionRs = satisfactionStmt.executeQuery();
-            
-            if (satisfactionRs.next()) {
-                int total = satisfactionRs.getInt("total");
-                int satisfied = satisfactionRs.getInt("satisfied");
-                double satisfactionRate = total > 0 ? (double) satisfied / total * 100 : 0;
-                
-                metrics.addProperty("totalResponses", total);
-                metrics.addProperty("satisfactionRate", satisfactionRate);
-            }
-            
-            // Calculate NPS
-            String npsSQL = """
-                SELECT 
-                    SUM(CASE WHEN nps_score >= 9 THEN 1 ELSE 0 END) as promoters,
-                    SUM(CASE WHEN nps_score <= 6 THEN 1 ELSE 0 END) as detractors,
-                    COUNT(*) as total_nps_responses
-                FROM survey_responses 
-                WHERE nps_score IS NOT NULL
-            """;
-            
-            PreparedStatement npsStmt = conn.prepareStatement(npsSQL);
-            ResultSet npsRs = npsStmt.executeQuery();
-            
-            if (npsRs.next()) {
-                int promoters = npsRs.getInt("promoters");
-                int detractors = npsRs.getInt("detractors");
-                int totalNPS = npsRs.getInt("total_nps_responses");
-                
-                if (totalNPS > 0) {
-                    double npsScore = (double) (promoters - detractors) / totalNPS * 100;
-                    metrics.addProperty("npsScore", npsScore);
-                }
-            }
+    private void getSurveyTrends(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
+        LocalDate[] range = getDateRange(request, response, out, DEFAULT_TREND_MONTHS);
+        if (range == null) return;
+        
+        try {
+            String granularityParam = request.getParameter("granularity");
+            SurveyMetricsEngine.Granularity granularity = granularityParam != null
+                ? SurveyMetricsEngine.Granularity.parse(granularityParam)
+                : SurveyMetricsEngine.Granularity.MONTH;
             
-            out.print(gson.toJson(metrics));
+            out.print(gson.toJson(metricsEngine.trends(range[0], range[1], granularity)));
             response.setStatus(HttpServletResponse.SC_OK);
             
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            JsonObject error = new JsonObject();
+            error.addProperty("error", e.getMessage());
+            out.print(gson.toJson(error));
         } catch (SQLException e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             JsonObject error = new JsonObject();
@@ -370,42 +759,230 @@ public class SurveyServlet extends HttpServlet {
     }
 
     /**
-     * Handle Excel file upload
+     * Get one customer's satisfaction profile from the in-memory index
+     */
+    private void getCustomerProfile(String customerId, HttpServletResponse response, PrintWriter out) {
+        JsonObject profile = customerProfiles.getProfileJson(customerId);
+        if (profile == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "No surveys for customer " + customerId);
+            out.print(gson.toJson(error));
+            return;
+        }
+        
+        out.print(gson.toJson(profile));
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * Get the customers with the highest risk scores
+     */
+    private void getAtRiskCustomers(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
+        int limit = Math.max(1, Math.min(getIntParameter(request, "limit", 10), MAX_AT_RISK_LIMIT));
+        
+        JsonObject result = new JsonObject();
+        result.add("customers", customerProfiles.getAtRiskJson(limit));
+        out.print(gson.toJson(result));
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * Open a Server-Sent Events stream
+     * The request goes async and is held open by the event broadcaster, so no request
+     * thread is tied up per connected dashboard
+     */
+    private void openEventStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setCharacterEncoding("UTF-8");
+        
+        if (!request.isAsyncSupported()) {
+            response.setContentType("application/json");
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "Streaming is not supported by this deployment");
+            response.getWriter().print(gson.toJson(error));
+            return;
+        }
+        
+        if (!eventBroadcaster.hasCapacity()) {
+            response.setContentType("application/json");
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "Too many open streams, try again later");
+            response.getWriter().print(gson.toJson(error));
+            return;
+        }
+        
+        response.setContentType("text/event-stream");
+        response.setHeader("Cache-Control", "no-cache");
+        AsyncContext asyncContext = request.startAsync();
+        if (!eventBroadcaster.register(asyncContext)) {
+            // Lost a race for the last slot
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            asyncContext.complete();
+        }
+    }
+
+    /**
+     * Handle Excel or CSV file upload
+     * Every file part is spooled to disk and the whole upload is queued as one job; each
+     * file (and each sheet of a workbook) is parsed concurrently and reported separately.
+     * The response carries the job id
      */
     private void handleFileUpload(HttpServletRequest request, HttpServletResponse response, PrintWriter out) 
             throws IOException, ServletException {
         
+        List<SpooledUpload> uploads = new ArrayList<>();
         try {
-            Part filePart = request.getPart("file");
-            if (filePart == null) {
+            List<Part> fileParts = new ArrayList<>();
+            for (Part part : request.getParts()) {
+                if (part.getSubmittedFileName() != null && part.getSize() > 0) {
+                    fileParts.add(part);
+                }
+            }
+            if (fileParts.isEmpty()) {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 JsonObject error = new JsonObject();
                 error.addProperty("error", "No file uploaded");
                 out.print(gson.toJson(error));
                 return;
             }
+            if (fileParts.size() > maxUploadFiles) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                JsonObject error = new JsonObject();
+                error.addProperty("error", "Too many files (max " + maxUploadFiles + " per upload)");
+                out.print(gson.toJson(error));
+                return;
+            }
             
-            // Process Excel file
-            List<SurveyResponse> surveyResponses = excelProcessor.processExcelFile(filePart.getInputStream());
+            // Copy the files out of the request so the job can outlive it
+            List<String> fileNames = new ArrayList<>();
+            for (Part filePart : fileParts) {
+                Path spooledFile = Files.createTempFile("survey-upload-", ".tmp");
+                uploads.add(new SpooledUpload(filePart.getSubmittedFileName(), spooledFile, isCsvUpload(filePart)));
+                try (InputStream in = filePart.getInputStream()) {
+                    Files.copy(in, spooledFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                fileNames.add(filePart.getSubmittedFileName());
+            }
             
-            // Save to database
-            int savedCount = saveSurveyResponses(surveyResponses);
+            List<SpooledUpload> jobUploads = new ArrayList<>(uploads);
+            UploadJob job = uploadJobs.submit(String.join(", ", fileNames), uploadJob -> {
+                try {
+                    List<SurveyIngestPipeline.Source> sources = new ArrayList<>();
+                    for (SpooledUpload upload : jobUploads) {
+                        try {
+                            sources.addAll(excelProcessor.listSources(upload.file.toFile(), upload.fileName, upload.csv));
+                        } catch (Exception e) {
+                            // An unreadable file is reported on its own; the other files still load
+                            uploadJob.getResult().addSource(upload.fileName, null).setError(e.getMessage());
+                        }
+                    }
+                    // Parse every sheet concurrently and save rows as they are parsed
+                    ingestPipeline.ingestAll(sources, uploadJob.getResult());
+                } finally {
+                    for (SpooledUpload upload : jobUploads) {
+                        Files.deleteIfExists(upload.file);
+                    }
+                }
+            });
+            uploads.clear();
             
-            JsonObject success = new JsonObject();
-            success.addProperty("message", "File processed successfully");
-            success.addProperty("recordsProcessed", surveyResponses.size());
-            success.addProperty("recordsSaved", savedCount);
-            out.print(gson.toJson(success));
-            response.setStatus(HttpServletResponse.SC_OK);
+            JsonObject accepted = new JsonObject();
+            accepted.addProperty("message", fileParts.size() == 1
+                ? "File accepted for processing"
+                : fileParts.size() + " files accepted for processing");
+            accepted.addProperty("jobId", job.getJobId());
+            accepted.addProperty("statusUrl", request.getContextPath() + "/api/survey/upload/" + job.getJobId());
+            out.print(gson.toJson(accepted));
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
             
+        } catch (RejectedExecutionException e) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "Too many uploads in progress, please retry later");
+            out.print(gson.toJson(error));
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             JsonObject error = new JsonObject();
             error.addProperty("error", "File processing error: " + e.getMessage());
             out.print(gson.toJson(error));
+        } finally {
+            for (SpooledUpload upload : uploads) {
+                Files.deleteIfExists(upload.file);
+            }
+        }
+    }
+
+    /**
+     * An uploaded file copied to a temporary file for its upload job
+     */
+    private static class SpooledUpload {
+        final String fileName;
+        final Path file;
+        final boolean csv;
+
+        SpooledUpload(String fileName, Path file, boolean csv) {
+            this.fileName = fileName;
+            this.file = file;
+            this.csv = csv;
+        }
+    }
+
+    /**
+     * Helper method to detect CSV uploads by file extension or content type
+     */
+    private boolean isCsvUpload(Part filePart) {
+        String fileName = filePart.getSubmittedFileName();
+        if (fileName != null && fileName.toLowerCase().endsWith(".csv")) {
+            return true;
+        }
+        String contentType = filePart.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("text/csv");
+    }
+
+    /**
+     * Import CSV survey data from the request body
+     * Rows are parsed from the request stream and saved in batches as they arrive;
+     * the response reports the counts once the body has been read
+     */
+    private void handleCsvImport(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
+        try {
+            IngestResult result = ingestPipeline.ingest(
+                handler -> excelProcessor.processCsvFile(request.getInputStream(), handler));
+            
+            JsonObject imported = new JsonObject();
+            imported.addProperty("message", "CSV imported");
+            result.writeTo(imported);
+            out.print(gson.toJson(imported));
+            response.setStatus(HttpServletResponse.SC_OK);
+            
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "CSV import error: " + e.getMessage());
+            out.print(gson.toJson(error));
         }
     }
 
+    /**
+     * Get upload job progress
+     */
+    private void getUploadStatus(String jobId, HttpServletResponse response, PrintWriter out) {
+        UploadJob job = uploadJobs.getJob(jobId);
+        if (job == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "Upload job not found");
+            out.print(gson.toJson(error));
+            return;
+        }
+        
+        out.print(gson.toJson(job.toJson()));
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
     /**
      * Create new survey response
      */
@@ -421,6 +998,10 @@ public class SurveyServlet extends HttpServlet {
         
         try {
             JsonObject surveyData = gson.fromJson(sb.toString(), JsonObject.class);
+            SurveyResponse surveyResponse = toSurveyResponse(surveyData);
+            // Bound to the insert and kept on the response, so in-memory totals bucket it by the same date
+            Timestamp surveyDate = new Timestamp(System.currentTimeMillis());
+            surveyResponse.setSurveyDate(surveyDate);
             
             try (Connection conn = dbManager.getConnection()) {
                 String sql = """
@@ -432,18 +1013,21 @@ public class SurveyServlet extends HttpServlet {
                 
                 PreparedStatement stmt = conn.prepareStatement(sql);
                 stmt.setString(1, surveyData.get("customerId").getAsString());
-                stmt.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+                stmt.setTimestamp(2, surveyDate);
                 stmt.setInt(3, surveyData.get("foodQuality").getAsInt());
                 stmt.setInt(4, surveyData.get("serviceQuality").getAsInt());
                 stmt.setInt(5, surveyData.get("hygiene").getAsInt());
                 stmt.setInt(6, surveyData.get("valueForMoney").getAsInt());
-                stmt.setString(7, surveyData.get("overallSatisfaction").getAsString());
+                // Normalized to one of the standard levels, as uploaded rows are
+                stmt.setString(7, surveyResponse.getOverallSatisfaction());
                 stmt.setString(8, surveyData.has("comments") ? surveyData.get("comments").getAsString() : "");
                 stmt.setInt(9, surveyData.has("npsScore") ? surveyData.get("npsScore").getAsInt() : 5);
                 
                 int rowsInserted = stmt.executeUpdate();
                 
                 if (rowsInserted > 0) {
+                    onSurveysSaved(List.of(surveyResponse));
+                    
                     JsonObject success = new JsonObject();
                     success.addProperty("message", "Survey response created successfully");
                     out.print(gson.toJson(success));
@@ -466,61 +1050,141 @@ public class SurveyServlet extends HttpServlet {
     }
 
     /**
-     * Save survey responses to database
+     * Update in-memory state after survey responses have been committed
      */
-    private int saveSurveyResponses(List<SurveyResponse> responses) throws SQLException {
-        int savedCount = 0;
-        
-        try (Connection conn = dbManager.getConnection()) {
-            String sql = """
-                INSERT INTO survey_responses 
-                (customer_id, survey_date, food_quality, service_quality, hygiene, 
-                 value_for_money, overall_satisfaction, comments, nps_score) 
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-            """;
-            
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            
-            for (SurveyResponse response : responses) {
-                stmt.setString(1, response.getCustomerId());
-                stmt.setTimestamp(2, new Timestamp(response.getSurveyDate().getTime()));
-                stmt.setInt(3, response.getFoodQuality());
-                stmt.setInt(4, response.getServiceQuality());
-                stmt.setInt(5, response.getHygiene());
-                stmt.setInt(6, response.getValueForMoney());
-                stmt.setString(7, response.getOverallSatisfaction());
-                stmt.setString(8, response.getComments());
-                stmt.setInt(9, response.getNpsScore());
-                
-                try {
-                    stmt.executeUpdate();
-                    savedCount++;
-                } catch (SQLException e) {
-                    // Log error but continue processing other records
-                    System.err.println("Error saving survey response: " + e.getMessage());
-                }
+    private void onSurveysSaved(List<SurveyResponse> saved) {
+        for (SurveyResponse surveyResponse : saved) {
+            aggregates.record(surveyResponse);
+            customerProfiles.record(surveyResponse);
+            sketches.record(surveyResponse);
+            rollupEngine.record(surveyResponse);
+            if (dailyTotals != null) {
+                dailyTotals.record(surveyResponse);
             }
         }
-        
-        return savedCount;
+        lastModified = System.currentTimeMillis();
+        dataVersion.incrementAndGet();
+        eventBroadcaster.publish(saved);
+    }
+
+    /**
+     * Last-Modified for the data, analytics and metrics endpoints; -1 (unknown) elsewhere
+     * HttpServlet uses this to answer If-Modified-Since with 304. When If-None-Match is
+     * present the ETag check in doGet decides instead, since it is not limited to whole seconds
+     */
+    @Override
+    protected long getLastModified(HttpServletRequest request) {
+        if (!isVersionedPath(request.getPathInfo()) || request.getHeader("If-None-Match") != null) {
+            return -1;
+        }
+        return lastModified / 1000 * 1000;
     }
 
     /**
-     * Helper method to create survey JSON object from ResultSet
+     * Helper method to check whether a GET path is derived only from saved survey data
      */
-    private JsonObject createSurveyJson(ResultSet rs) throws SQLException {
-        JsonObject survey = new JsonObject();
-        survey.addProperty("surveyId", rs.getInt("survey_id"));
-        survey.addProperty("customerId", rs.getString("customer_id"));
-        survey.addProperty("surveyDate", rs.getTimestamp("survey_date").toString());
-        survey.addProperty("foodQuality", rs.getInt("food_quality"));
-        survey.addProperty("serviceQuality", rs.getInt("service_quality"));
-        survey.addProperty("hygiene", rs.getInt("hygiene"));
-        survey.addProperty("valueForMoney", rs.getInt("value_for_money"));
-        survey.addProperty("overallSatisfaction", rs.getString("overall_satisfaction"));
-        survey.addProperty("comments", rs.getString("comments"));
-        survey.addProperty("npsScore", rs.getInt("nps_score"));
-        return survey;
+    private static boolean isVersionedPath(String pathInfo) {
+        return pathInfo == null || pathInfo.equals("/") || pathInfo.equals("/data")
+            || pathInfo.equals("/analytics") || pathInfo.equals("/metrics") || pathInfo.equals("/trends")
+            || pathInfo.startsWith("/customers/");
+    }
+
+    /**
+     * Helper method to build a strong ETag for the current data version and request
+     * The query string is part of the tag because each filter yields a different payload,
+     * and the date because default ranges and trend windows move with the calendar
+     */
+    private String currentEtag(HttpServletRequest request) {
+        String query = request.getQueryString();
+        int variant = (request.getPathInfo() + "?" + (query != null ? query : "")).hashCode();
+        return "\"" + Long.toString(versionEpoch, 36) + "-" + dataVersion.get() + "-"
+            + LocalDate.now().toEpochDay() + "-" + Integer.toHexString(variant) + "\"";
+    }
+
+    /**
+     * Helper method to compare an If-None-Match header against an ETag
+     */
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Helper method to build a SurveyResponse from request JSON
+     */
+    private SurveyResponse toSurveyResponse(JsonObject surveyData) {
+        SurveyResponse surveyResponse = new SurveyResponse();
+        surveyResponse.setCustomerId(surveyData.get("customerId").getAsString());
+        surveyResponse.setFoodQuality(surveyData.get("foodQuality").getAsInt());
+        surveyResponse.setServiceQuality(surveyData.get("serviceQuality").getAsInt());
+        surveyResponse.setHygiene(surveyData.get("hygiene").getAsInt());
+        surveyResponse.setValueForMoney(surveyData.get("valueForMoney").getAsInt());
+        surveyResponse.setOverallSatisfaction(surveyData.get("overallSatisfaction").getAsString());
+        surveyResponse.setComments(surveyData.has("comments") ? surveyData.get("comments").getAsString() : "");
+        surveyResponse.setNpsScore(surveyData.has("npsScore") ? surveyData.get("npsScore").getAsInt() : 5);
+        return surveyResponse;
+    }
+
+    /**
+     * Helper method to write the current ResultSet row as a survey JSON object
+     */
+    private void writeSurveyJson(JsonWriter writer, ResultSet rs) throws SQLException, IOException {
+        writer.beginObject();
+        writer.name("surveyId").value(rs.getInt("survey_id"));
+        writer.name("customerId").value(rs.getString("customer_id"));
+        writer.name("surveyDate").value(rs.getTimestamp("survey_date").toString());
+        writer.name("foodQuality").value(rs.getInt("food_quality"));
+        writer.name("serviceQuality").value(rs.getInt("service_quality"));
+        writer.name("hygiene").value(rs.getInt("hygiene"));
+        writer.name("valueForMoney").value(rs.getInt("value_for_money"));
+        writer.name("overallSatisfaction").value(rs.getString("overall_satisfaction"));
+        writer.name("comments").value(rs.getString("comments"));
+        writer.name("npsScore").value(rs.getInt("nps_score"));
+        writer.endObject();
+    }
+
+    /**
+     * Helper method to check for from/to date range parameters
+     */
+    private boolean hasDateRange(HttpServletRequest request) {
+        return request.getParameter("from") != null || request.getParameter("to") != null;
+    }
+
+    /**
+     * Helper method to read from/to (yyyy-MM-dd, inclusive) parameters
+     * Writes a 400 response and returns null when they are malformed
+     */
+    private LocalDate[] getDateRange(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
+        return getDateRange(request, response, out, 0);
+    }
+
+    /**
+     * Helper method to read from/to parameters, defaulting "from" to defaultMonths before "to"
+     * (or to the earliest survey date when defaultMonths is 0)
+     */
+    private LocalDate[] getDateRange(HttpServletRequest request, HttpServletResponse response, PrintWriter out,
+                                     int defaultMonths) {
+        try {
+            String fromParam = request.getParameter("from");
+            String toParam = request.getParameter("to");
+            LocalDate to = toParam != null ? LocalDate.parse(toParam) : LocalDate.now();
+            LocalDate defaultFrom = defaultMonths > 0 ? to.minusMonths(defaultMonths) : EARLIEST_SURVEY_DATE;
+            LocalDate from = fromParam != null ? LocalDate.parse(fromParam) : defaultFrom;
+            if (from.isAfter(to)) {
+                throw new DateTimeParseException("from is after to", fromParam, 0);
+            }
+            return new LocalDate[] { from, to };
+        } catch (DateTimeParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "Invalid date range: " + e.getMessage());
+            out.print(gson.toJson(error));
+            return null;
+        }
     }
 
     /**
@@ -538,8 +1202,35 @@ public class SurveyServlet extends HttpServlet {
         return defaultValue;
     }
 
+    /**
+     * Helper method to create named daemon worker threads
+     */
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
     @Override
     public void destroy() {
+        if (eventBroadcaster != null) {
+            eventBroadcaster.shutdown();
+        }
+        if (dbExecutor != null) {
+            dbExecutor.shutdown();
+        }
+        if (rollupEngine != null) {
+            rollupEngine.stop();
+        }
+        if (uploadJobs != null) {
+            uploadJobs.shutdown();
+        }
+        if (parserExecutor != null) {
+            parserExecutor.shutdownNow();
+        }
         if (dbManager != null) {
             dbManager.closeConnection();
         }
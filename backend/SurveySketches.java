@@ -0,0 +1,159 @@
+package com.customerdashboard.backend;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.TreeMap;
+
+/**
+ * SurveySketches keeps an NPS histogram and a distinct-customer sketch per day and per month
+ * Seeded once from survey_responses and updated on every insert. A date range is
+ * answered by merging whole-month sketches plus the day sketches of any partial
+ * months at either end, so the cost does not grow with the number of responses
+ */
+public class SurveySketches {
+    static final int MAX_NPS = 10;
+
+    private final TreeMap<LocalDate, Sketch> days = new TreeMap<>();
+    private final TreeMap<YearMonth, Sketch> months = new TreeMap<>();
+
+    /**
+     * Mergeable sketches for one bucket
+     */
+    public static class Sketch {
+        private final ScoreHistogram nps = new ScoreHistogram(MAX_NPS);
+        private final HyperLogLog customers = new HyperLogLog();
+
+        void add(String customerId, Integer npsScore) {
+            if (npsScore != null) {
+                nps.add(npsScore);
+            }
+            if (customerId != null && !customerId.isEmpty()) {
+                customers.add(customerId);
+            }
+        }
+
+        void merge(Sketch other) {
+            nps.merge(other.nps);
+            customers.merge(other.customers);
+        }
+
+        public Integer getNpsPercentile(double fraction) {
+            return nps.percentile(fraction);
+        }
+
+        public long getNpsCount() {
+            return nps.getCount();
+        }
+
+        public long getUniqueCustomers() {
+            return customers.estimate();
+        }
+    }
+
+    /**
+     * Load the sketches from all existing survey responses
+     */
+    public void seed(DatabaseManager dbManager) throws SQLException {
+        String sql = """
+            SELECT customer_id, survey_date, nps_score
+            FROM survey_responses
+        """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(1000);
+
+            synchronized (this) {
+                days.clear();
+                months.clear();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp surveyDate = rs.getTimestamp("survey_date");
+                        int nps = rs.getInt("nps_score");
+                        Integer npsScore = rs.wasNull() ? null : nps;
+                        record(rs.getString("customer_id"), surveyDate, npsScore);
+                    }
+                }
+            }
+        }
+
+        System.out.println("Survey sketches seeded for " + days.size() + " days");
+    }
+
+    /**
+     * Add a newly inserted survey response
+     */
+    public void record(SurveyResponse response) {
+        record(response.getCustomerId(), response.getSurveyDate(), response.getNpsScore());
+    }
+
+    private synchronized void record(String customerId, Date surveyDate, Integer npsScore) {
+        if (surveyDate == null) return;
+
+        LocalDate day = surveyDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        days.computeIfAbsent(day, d -> new Sketch()).add(customerId, npsScore);
+        months.computeIfAbsent(YearMonth.from(day), m -> new Sketch()).add(customerId, npsScore);
+    }
+
+    /**
+     * Merged sketch over every response
+     */
+    public synchronized Sketch summarizeAll() {
+        Sketch result = new Sketch();
+        for (Sketch month : months.values()) {
+            result.merge(month);
+        }
+        return result;
+    }
+
+    /**
+     * Merged sketch for from..to (inclusive)
+     */
+    public synchronized Sketch summarize(LocalDate from, LocalDate to) {
+        Sketch result = new Sketch();
+        YearMonth month = YearMonth.from(from);
+        YearMonth lastMonth = YearMonth.from(to);
+        while (!month.isAfter(lastMonth)) {
+            LocalDate monthStart = month.atDay(1);
+            LocalDate monthEnd = month.atEndOfMonth();
+            if (!from.isAfter(monthStart) && !to.isBefore(monthEnd)) {
+                Sketch whole = months.get(month);
+                if (whole != null) {
+                    result.merge(whole);
+                }
+            } else {
+                LocalDate start = from.isAfter(monthStart) ? from : monthStart;
+                LocalDate end = to.isBefore(monthEnd) ? to : monthEnd;
+                for (Sketch day : days.subMap(start, true, end, true).values()) {
+                    result.merge(day);
+                }
+            }
+
+            // Skip straight to the next month holding data rather than stepping through empty ones
+            YearMonth next = months.higherKey(month);
+            if (next == null) break;
+            month = next;
+        }
+        return result;
+    }
+
+    /**
+     * Merged sketch per calendar month for from..to (inclusive), clipped to the range at either end
+     */
+    public synchronized TreeMap<YearMonth, Sketch> monthlyBetween(LocalDate from, LocalDate to) {
+        TreeMap<YearMonth, Sketch> result = new TreeMap<>();
+        for (YearMonth month : months.subMap(YearMonth.from(from), true, YearMonth.from(to), true).keySet()) {
+            LocalDate start = month.atDay(1).isBefore(from) ? from : month.atDay(1);
+            LocalDate end = month.atEndOfMonth().isAfter(to) ? to : month.atEndOfMonth();
+            result.put(month, summarize(start, end));
+        }
+        return result;
+    }
+}
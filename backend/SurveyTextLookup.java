@@ -0,0 +1,129 @@
+package com.customerdashboard.backend;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * SurveyTextLookup maps rating words and satisfaction labels in uploaded cells to their values
+ * Common spellings are answered from tables built once; any other text is classified by
+ * keyword the first time it is seen and remembered, so a repeated cell costs one hash lookup.
+ * Not thread-safe: each parsed sheet or file uses its own instance
+ */
+public class SurveyTextLookup {
+    // Distinct unrecognised texts remembered before falling back to classifying each cell
+    private static final int MAX_REMEMBERED = 1024;
+
+    private static final Map<String, Integer> RATINGS = new HashMap<>();
+    private static final Map<String, String> SATISFACTION = new HashMap<>();
+
+    static {
+        String[] ratingWords = {
+            "Excellent", "Outstanding", "Very Good", "Good", "Average", "Okay", "Fair",
+            "Below Average", "Poor", "Very Poor", "Terrible"
+        };
+        for (String word : ratingWords) {
+            putSpellings(RATINGS, word, classifyRating(word));
+        }
+
+        // Canonical labels map to themselves; the keyword rules only cover other wording
+        for (String level : MetricTotals.SATISFACTION_LEVELS) {
+            putSpellings(SATISFACTION, level, level);
+        }
+        String[] satisfactionWords = {
+            "Very Satisfied", "Very Dissatisfied", "Excellent", "Good", "Average", "Okay", "Poor",
+            "Very Poor", "Terrible"
+        };
+        for (String word : satisfactionWords) {
+            putSpellings(SATISFACTION, word, classifySatisfaction(word));
+        }
+        SATISFACTION.put("", "Neutral");
+    }
+
+    private final Map<String, Integer> ratings = new HashMap<>();
+    private final Map<String, String> satisfaction = new HashMap<>();
+
+    /**
+     * Rating (1-5) for a text rating such as "Very Good"; unrecognised text is 3
+     */
+    public int rating(String text) {
+        Integer rating = RATINGS.get(text);
+        if (rating == null) {
+            rating = ratings.get(text);
+        }
+        if (rating == null) {
+            rating = classifyRating(text);
+            if (ratings.size() < MAX_REMEMBERED) {
+                ratings.put(text, rating);
+            }
+        }
+        return rating;
+    }
+
+    /**
+     * Canonical satisfaction level for a label; blank or unrecognised text is "Neutral"
+     */
+    public String satisfaction(String text) {
+        if (text == null) return "Neutral";
+
+        String level = SATISFACTION.get(text);
+        if (level == null) {
+            level = satisfaction.get(text);
+        }
+        if (level == null) {
+            level = classifySatisfaction(text);
+            if (satisfaction.size() < MAX_REMEMBERED) {
+                satisfaction.put(text, level);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Parse text-based ratings by keyword
+     */
+    static int classifyRating(String text) {
+        text = text.toLowerCase(Locale.ROOT).trim();
+
+        if (text.contains("excellent") || text.contains("outstanding") || text.equals("5")) return 5;
+        if (text.contains("good") || text.contains("very good") || text.equals("4")) return 4;
+        if (text.contains("average") || text.contains("okay") || text.contains("fair") || text.equals("3")) return 3;
+        if (text.contains("poor") || text.contains("below average") || text.equals("2")) return 2;
+        if (text.contains("terrible") || text.contains("very poor") || text.equals("1")) return 1;
+
+        return 3; // Default neutral
+    }
+
+    /**
+     * Normalize overall satisfaction wording by keyword
+     * Dissatisfaction is tested first, since every "dissatisfied" label also contains "satisfied"
+     */
+    static String classifySatisfaction(String text) {
+        text = text.toLowerCase(Locale.ROOT).trim();
+        if (text.isEmpty()) return "Neutral";
+
+        if (text.contains("highly dissatisfied") || text.contains("very dissatisfied")
+                || text.contains("terrible") || text.contains("very poor")) {
+            return "Highly Dissatisfied";
+        } else if (text.contains("dissatisfied") || text.contains("poor")) {
+            return "Dissatisfied";
+        } else if (text.contains("highly satisfied") || text.contains("excellent") || text.contains("very satisfied")) {
+            return "Highly Satisfied";
+        } else if (text.contains("satisfied") || text.contains("good")) {
+            return "Satisfied";
+        } else if (text.contains("neutral") || text.contains("average") || text.contains("okay")) {
+            return "Neutral";
+        }
+
+        return "Neutral";
+    }
+
+    /**
+     * Register a key as written, in lower case and in upper case
+     */
+    private static <V> void putSpellings(Map<String, V> table, String key, V value) {
+        table.put(key, value);
+        table.put(key.toLowerCase(Locale.ROOT), value);
+        table.put(key.toUpperCase(Locale.ROOT), value);
+    }
+}
@@ -0,0 +1,108 @@
+package com.customerdashboard.backend;
+
+import com.google.gson.JsonObject;
+
+/**
+ * UploadJob tracks one asynchronous survey upload
+ * Progress counters live in the shared IngestResult and can be read while the job runs
+ */
+public class UploadJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String jobId;
+    private final String fileName;
+    private final IngestResult result = new IngestResult();
+    private final long createdAt = System.currentTimeMillis();
+    private volatile Status status = Status.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String errorMessage;
+
+    public UploadJob(String jobId, String fileName) {
+        this.jobId = jobId;
+        this.fileName = fileName;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public IngestResult getResult() {
+        return result;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    void markRunning() {
+        startedAt = System.currentTimeMillis();
+        status = Status.RUNNING;
+    }
+
+    void markCompleted() {
+        finishedAt = System.currentTimeMillis();
+        status = Status.COMPLETED;
+    }
+
+    void markFailed(String message) {
+        errorMessage = message;
+        finishedAt = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+
+    /**
+     * Rows processed per second since the job started
+     */
+    public double getThroughput() {
+        if (startedAt == 0) return 0;
+
+        long end = finishedAt != 0 ? finishedAt : System.currentTimeMillis();
+        long elapsed = Math.max(1, end - startedAt);
+        return result.getProcessed() * 1000.0 / elapsed;
+    }
+
+    /**
+     * Status payload for GET /api/survey/upload/{id}
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("jobId", jobId);
+        json.addProperty("fileName", fileName);
+        json.addProperty("status", status.name());
+        json.addProperty("rowsParsed", result.getProcessed());
+        json.addProperty("rowsSaved", result.getSaved());
+        json.addProperty("rowsDuplicate", result.getDuplicates());
+        json.addProperty("rowsFailed", result.getFailed());
+        json.addProperty("rowsPerSecond", Math.round(getThroughput() * 10) / 10.0);
+        json.addProperty("createdAt", createdAt);
+        if (startedAt != 0) {
+            long end = finishedAt != 0 ? finishedAt : System.currentTimeMillis();
+            json.addProperty("elapsedMillis", end - startedAt);
+        }
+        if (errorMessage != null) {
+            json.addProperty("error", errorMessage);
+        }
+        if (isFinished()) {
+            result.writeTo(json);
+        } else {
+            result.writeSources(json);
+        }
+        return json;
+    }
+}
@@ -0,0 +1,98 @@
+package com.customerdashboard.backend;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * UploadJobManager runs survey uploads on a dedicated executor
+ * Jobs are accepted immediately and polled for progress; finished jobs are
+ * forgotten after the retention period
+ */
+public class UploadJobManager {
+
+    /**
+     * The work for one upload job
+     */
+    public interface JobTask {
+        void run(UploadJob job) throws Exception;
+    }
+
+    private final ThreadPoolExecutor jobExecutor;
+    private final ScheduledExecutorService cleaner;
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+    private final long retentionMillis;
+
+    public UploadJobManager(int workerThreads, int maxQueuedJobs, long retentionMillis) {
+        this.retentionMillis = retentionMillis;
+
+        AtomicInteger counter = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(
+            workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, maxQueuedJobs)),
+            r -> {
+                Thread t = new Thread(r, "upload-job-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+        cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "upload-job-cleaner");
+            t.setDaemon(true);
+            return t;
+        });
+        cleaner.scheduleWithFixedDelay(this::evictFinishedJobs, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Queue a new job
+     * @throws RejectedExecutionException when the job queue is full
+     */
+    public UploadJob submit(String fileName, JobTask task) {
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), fileName);
+        jobs.put(job.getJobId(), job);
+
+        try {
+            jobExecutor.execute(() -> runJob(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Look up a job by id, or null if unknown or expired
+     */
+    public UploadJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void runJob(UploadJob job, JobTask task) {
+        job.markRunning();
+        try {
+            task.run(job);
+            job.markCompleted();
+        } catch (Exception e) {
+            System.err.println("Upload job " + job.getJobId() + " failed: " + e.getMessage());
+            job.markFailed(e.getMessage());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() < cutoff);
+    }
+
+    public void shutdown() {
+        cleaner.shutdownNow();
+        jobExecutor.shutdownNow();
+    }
+}
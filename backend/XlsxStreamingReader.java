@@ -0,0 +1,267 @@
+package com.customerdashboard.backend;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * XlsxStreamingReader reads .xlsx sheets with a SAX parser over the sheet XML
+ * Rows are delivered one at a time, so memory is bounded by the shared strings
+ * table and the widest row rather than by the size of the sheet
+ */
+public class XlsxStreamingReader {
+
+    /**
+     * Receives sheet rows in document order
+     */
+    public interface RowCallback {
+        void row(SheetRow row) throws Exception;
+    }
+
+    /**
+     * Stream one sheet of the workbook by position (0-based)
+     * Each call opens its own package, so different sheets can be read on different threads
+     */
+    public void readSheet(File file, int sheetIndex, RowCallback callback) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            for (int i = 0; i < sheetIndex && sheets.hasNext(); i++) {
+                sheets.next().close();
+            }
+            if (!sheets.hasNext()) {
+                throw new Exception(sheetIndex == 0 ? "Workbook contains no sheets" : "Sheet " + sheetIndex + " not found");
+            }
+            try (InputStream sheet = sheets.next()) {
+                readSheet(sheet, sharedStrings, callback);
+            }
+        }
+    }
+
+    /**
+     * Names of the workbook's sheets in workbook order
+     */
+    public List<String> getSheetNames(File file) throws Exception {
+        List<String> names = new ArrayList<>();
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                names.add(sheets.getSheetName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Stream one sheet part
+     */
+    public void readSheet(InputStream sheet, ReadOnlySharedStringsTable sharedStrings, RowCallback callback)
+            throws Exception {
+        XMLReader parser = XMLHelper.newXMLReader();
+        SheetHandler handler = new SheetHandler(sharedStrings, callback);
+        parser.setContentHandler(handler);
+        try {
+            parser.parse(new InputSource(sheet));
+        } catch (CallbackException e) {
+            throw e.callbackError;
+        }
+    }
+
+    /**
+     * A reusable view of the current row
+     * Values are the cell text (shared and inline strings resolved, numbers as written in the XML)
+     */
+    public static class SheetRow {
+        private long rowNumber;
+        private String[] values = new String[16];
+        private boolean[] numeric = new boolean[16];
+        private int width;
+
+        /**
+         * 1-based row number as shown in Excel
+         */
+        public long getRowNumber() {
+            return rowNumber;
+        }
+
+        /**
+         * Number of columns up to and including the last non-empty cell
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Cell text, or null when the cell is missing
+         */
+        public String getValue(int column) {
+            return column >= 0 && column < width ? values[column] : null;
+        }
+
+        /**
+         * True when the cell holds a number (including dates stored as serial numbers)
+         */
+        public boolean isNumeric(int column) {
+            return column >= 0 && column < width && numeric[column];
+        }
+
+        void reset(long rowNumber) {
+            this.rowNumber = rowNumber;
+            Arrays.fill(values, 0, width, null);
+            Arrays.fill(numeric, 0, width, false);
+            width = 0;
+        }
+
+        void set(int column, String value, boolean isNumeric) {
+            if (column >= values.length) {
+                int capacity = Math.max(column + 1, values.length * 2);
+                values = Arrays.copyOf(values, capacity);
+                numeric = Arrays.copyOf(numeric, capacity);
+            }
+            values[column] = value;
+            numeric[column] = isNumeric;
+            width = Math.max(width, column + 1);
+        }
+    }
+
+    /**
+     * SAX handler for the worksheet XML (sheetData/row/c/v)
+     */
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final RowCallback callback;
+        private final SheetRow row = new SheetRow();
+        private final StringBuilder text = new StringBuilder();
+
+        private long nextRowNumber = 1;
+        private int nextColumn;
+        private int cellColumn;
+        private String cellType;
+        private boolean inRow;
+        private boolean collecting;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, RowCallback callback) {
+            this.sharedStrings = sharedStrings;
+            this.callback = callback;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            String name = localName.isEmpty() ? qName : localName;
+            switch (name) {
+                case "row":
+                    String rowRef = attributes.getValue("r");
+                    long rowNumber = rowRef != null ? Long.parseLong(rowRef) : nextRowNumber;
+                    row.reset(rowNumber);
+                    nextRowNumber = rowNumber + 1;
+                    nextColumn = 0;
+                    inRow = true;
+                    break;
+                case "c":
+                    String cellRef = attributes.getValue("r");
+                    cellColumn = cellRef != null ? columnIndex(cellRef) : nextColumn;
+                    nextColumn = cellColumn + 1;
+                    cellType = attributes.getValue("t");
+                    text.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    // <t> carries inline string text inside <is>
+                    collecting = inRow;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            String name = localName.isEmpty() ? qName : localName;
+            switch (name) {
+                case "v":
+                case "t":
+                    collecting = false;
+                    break;
+                case "c":
+                    storeCell();
+                    break;
+                case "row":
+                    inRow = false;
+                    try {
+                        callback.row(row);
+                    } catch (Exception e) {
+                        throw new CallbackException(e);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void storeCell() {
+            if (text.length() == 0) return;
+
+            String raw = text.toString();
+            if ("s".equals(cellType)) {
+                int index = Integer.parseInt(raw.trim());
+                row.set(cellColumn, sharedStrings.getItemAt(index).getString(), false);
+            } else if ("inlineStr".equals(cellType) || "str".equals(cellType) || "e".equals(cellType)) {
+                row.set(cellColumn, raw, false);
+            } else if ("b".equals(cellType)) {
+                row.set(cellColumn, "1".equals(raw) ? "true" : "false", false);
+            } else {
+                // Numeric (default type "n") or a formula's cached numeric result
+                row.set(cellColumn, raw, true);
+            }
+        }
+
+        /**
+         * Convert a cell reference such as "AB12" to a 0-based column index
+         */
+        private static int columnIndex(String cellRef) {
+            int column = 0;
+            for (int i = 0; i < cellRef.length(); i++) {
+                char c = cellRef.charAt(i);
+                if (c < 'A' || c > 'Z') break;
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+
+    /**
+     * Carries a callback failure out of the SAX parser unchanged
+     */
+    private static class CallbackException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final Exception callbackError;
+
+        CallbackException(Exception callbackError) {
+            super(callbackError);
+            this.callbackError = callbackError;
+        }
+    }
+}
@@ -6,6 +6,8 @@ class SurveyDashboard {
         this.filteredData = [];
         this.charts = {};
         this.currentSection = 'overview';
+        // Relative to the page, so the servlet context path (e.g. /customer-dashboard) is kept
+        this.apiBase = 'api/survey';
         this.init();
     }
 
@@ -491,9 +493,33 @@ class SurveyDashboard {
 
     // Setup activity feed
     setupActivityFeed() {
+        this.liveActivities = [];
         this.updateActivityFeed();
-        // Update activity feed every 30 seconds
-        setInterval(() => this.updateActivityFeed(), 30000);
+        if (window.EventSource) {
+            // Let the server push updates instead of polling
+            this.connectEventStream();
+        } else {
+            // Update activity feed every 30 seconds
+            setInterval(() => this.updateActivityFeed(), 30000);
+        }
+    }
+
+    // Subscribe to live survey metric updates (EventSource reconnects on its own)
+    connectEventStream() {
+        const stream = new EventSource(`${this.apiBase}/stream`);
+        stream.addEventListener('metrics', (e) => {
+            const update = JSON.parse(e.data);
+            const added = update.delta?.totalResponses || 0;
+            if (added === 0) return;
+
+            this.liveActivities.unshift({
+                icon: 'fas fa-comment',
+                title: `${added} new survey response${added === 1 ? '' : 's'} received`,
+                time: new Date().toLocaleTimeString()
+            });
+            this.liveActivities = this.liveActivities.slice(0, 5);
+            this.updateActivityFeed();
+        });
     }
 
     // Update activity feed
@@ -508,8 +534,9 @@ class SurveyDashboard {
             { icon: 'fas fa-star', title: 'Food quality rating improved', time: '1 hour ago' },
             { icon: 'fas fa-bell', title: 'Weekly analytics report generated', time: '2 hours ago' }
         ];
+        const feed = [...(this.liveActivities || []), ...activities].slice(0, 5);
 
-        container.innerHTML = activities.map(activity => `
+        container.innerHTML = feed.map(activity => `
             <div class="activity-item">
                 <div class="activity-icon">
                     <i class="${activity.icon}"></i>
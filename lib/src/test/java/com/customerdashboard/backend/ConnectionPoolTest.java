@@ -0,0 +1,149 @@
+package com.customerdashboard.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolTest {
+    private ConnectionPool pool;
+
+    private ConnectionPool pool(int maxActive, long maxWaitMillis, long leakThresholdMillis) {
+        String url = "jdbc:h2:mem:pool" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        pool = new ConnectionPool(url, "sa", "", 1, maxActive, maxActive, 0, maxWaitMillis, leakThresholdMillis, false);
+        return pool;
+    }
+
+    @AfterEach
+    void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void reusesReturnedConnections() throws SQLException {
+        pool(2, 1000, 0);
+
+        Connection first = pool.getConnection();
+        assertEquals(1, pool.getActiveCount());
+        first.close();
+        first.close();
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        try (Connection second = pool.getConnection()) {
+            assertNotSame(first, second);
+            assertEquals(1, pool.getTotalConnections());
+        }
+        assertEquals(2, pool.getBorrowCount());
+    }
+
+    @Test
+    void returnedConnectionCannotBeUsed() throws SQLException {
+        pool(1, 1000, 0);
+
+        Connection conn = pool.getConnection();
+        Statement stmt = conn.createStatement();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        assertThrows(SQLException.class, () -> stmt.executeQuery("SELECT 1"));
+    }
+
+    @Test
+    void rollsBackUncommittedWorkOnReturn() throws SQLException {
+        pool(1, 1000, 0);
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INT)");
+        }
+
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.execute("INSERT INTO t VALUES (1)");
+        }
+
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertTrue(conn.getAutoCommit());
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void timesOutWhenExhausted() throws SQLException {
+        pool(1, 50, 0);
+
+        try (Connection held = pool.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+        }
+        assertEquals(1, pool.getBorrowTimeouts());
+
+        // The permit of the failed borrow is not lost
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+    }
+
+    @Test
+    void neverExposesPhysicalConnection() throws SQLException {
+        pool(1, 1000, 0);
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
+            assertSame(conn, stmt.getConnection());
+            assertSame(conn, conn.unwrap(Connection.class));
+            assertFalse(conn.isWrapperFor(JdbcConnection.class));
+            assertThrows(SQLException.class, () -> conn.unwrap(JdbcConnection.class));
+            assertThrows(SQLException.class, () -> stmt.unwrap(org.h2.jdbc.JdbcPreparedStatement.class));
+        }
+    }
+
+    @Test
+    void reportsConnectionsHeldPastLeakThreshold() throws Exception {
+        pool(2, 1000, 100);
+
+        try (Connection returnedInTime = pool.getConnection()) {
+            assertFalse(returnedInTime.isClosed());
+        }
+        Connection leaked = pool.getConnection();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getLeaksDetected() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, pool.getLeaksDetected());
+
+        // Each leak is reported once
+        Thread.sleep(1200);
+        assertEquals(1, pool.getLeaksDetected());
+        leaked.close();
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    void leakDetectionIsOffByDefault() throws Exception {
+        pool(1, 1000, 0);
+
+        try (Connection conn = pool.getConnection()) {
+            Thread.sleep(1200);
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(0, pool.getLeaksDetected());
+    }
+}
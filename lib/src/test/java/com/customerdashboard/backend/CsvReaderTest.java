@@ -0,0 +1,170 @@
+package com.customerdashboard.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    private static List<List<String>> read(String csv, int bufferSize) throws Exception {
+        return read(csv.getBytes(StandardCharsets.UTF_8), bufferSize);
+    }
+
+    private static List<List<String>> read(byte[] csv, int bufferSize) throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        new CsvReader((byte) ',', bufferSize).read(new ByteArrayInputStream(csv), row -> {
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < row.getWidth(); i++) {
+                values.add(row.getValue(i));
+            }
+            rows.add(values);
+        });
+        return rows;
+    }
+
+    /**
+     * Parse with every buffer size from 1 byte up to the whole input, so each record
+     * boundary, quote and terminator lands on a buffer edge at least once
+     */
+    private static void assertParsesAtEveryBufferSize(String csv, List<List<String>> expected) throws Exception {
+        for (int size = 1; size <= csv.length() + 1; size++) {
+            assertEquals(expected, read(csv, size), "buffer size " + size);
+        }
+    }
+
+    @Test
+    void splitsPlainRecords() throws Exception {
+        assertParsesAtEveryBufferSize("a,b,c\n1,2,3\n", List.of(
+            List.of("a", "b", "c"),
+            List.of("1", "2", "3")));
+    }
+
+    @Test
+    void readsQuotedFields() throws Exception {
+        assertParsesAtEveryBufferSize("\"a,b\",\"say \"\"hi\"\"\",\"\"\n\"line\nbreak\",x\n", List.of(
+            List.of("a,b", "say \"hi\"", ""),
+            List.of("line\nbreak", "x")));
+    }
+
+    @Test
+    void ignoresTextAfterClosingQuote() throws Exception {
+        assertEquals(List.of(List.of("ab", "c")), read("\"ab\"x,c\n", 64));
+    }
+
+    @Test
+    void acceptsEveryRecordTerminator() throws Exception {
+        assertParsesAtEveryBufferSize("a,b\r\nc,d\re,f\ng,h", List.of(
+            List.of("a", "b"),
+            List.of("c", "d"),
+            List.of("e", "f"),
+            List.of("g", "h")));
+    }
+
+    @Test
+    void crlfSplitAcrossBuffersIsOneTerminator() throws Exception {
+        // With an 8 byte buffer the \r is the last byte of the first fill and the \n the first of the next
+        String csv = "abc,def\r\nxyz\r\n";
+        assertEquals(List.of(List.of("abc", "def"), List.of("xyz")), read(csv, 8));
+    }
+
+    @Test
+    void growsBufferForLongRecords() throws Exception {
+        char[] longField = new char[10_000];
+        Arrays.fill(longField, 'x');
+        String field = new String(longField);
+        String csv = "id,text\n1,\"" + field + "\"\n2,short\n";
+
+        assertEquals(List.of(
+            List.of("id", "text"),
+            List.of("1", field),
+            List.of("2", "short")), read(csv, 16));
+    }
+
+    @Test
+    void skipsBlankLinesAndByteOrderMark() throws Exception {
+        byte[] body = "h1,h2\n\n1,2\r\n\r\n3,4\n".getBytes(StandardCharsets.UTF_8);
+        byte[] csv = new byte[body.length + 3];
+        csv[0] = (byte) 0xEF;
+        csv[1] = (byte) 0xBB;
+        csv[2] = (byte) 0xBF;
+        System.arraycopy(body, 0, csv, 3, body.length);
+
+        List<Long> rowNumbers = new ArrayList<>();
+        List<String> firstValues = new ArrayList<>();
+        new CsvReader().read(new ByteArrayInputStream(csv), row -> {
+            rowNumbers.add(row.getRowNumber());
+            firstValues.add(row.getValue(0));
+        });
+
+        assertEquals(List.of(1L, 2L, 3L), rowNumbers);
+        assertEquals(List.of("h1", "1", "3"), firstValues);
+    }
+
+    @Test
+    void keepsQuotedEmptyLine() throws Exception {
+        assertEquals(List.of(List.of("a"), List.of(""), List.of("b")), read("a\n\"\"\nb\n", 64));
+    }
+
+    @Test
+    void unterminatedQuoteRunsToEndOfInput() throws Exception {
+        assertEquals(List.of(List.of("a", "b,c\n")), read("a,\"b,c\n", 4));
+    }
+
+    @Test
+    void readsTypedFieldsWithoutDecoding() throws Exception {
+        String csv = " 42 ,-7,4.0,4.5,,2024-03-05,2024-03-05T10:15,2024-02-30,\" Satisfied \",\"a\"\"b\"\n";
+        List<Object> values = new ArrayList<>();
+        new CsvReader().read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), row -> {
+            values.add(row.getInteger(0));
+            values.add(row.getInteger(1));
+            values.add(row.getInteger(2));
+            values.add(row.getInteger(3));
+            values.add(row.isBlank(4));
+            values.add(row.getIsoDate(5));
+            values.add(row.getIsoDate(6));
+            values.add(row.getIsoDate(7));
+            values.add(row.equalsIgnoreCase(8, "satisfied"));
+            values.add(row.equalsIgnoreCase(9, "a\"b"));
+            values.add(row.getValue(20));
+        });
+
+        assertEquals(42, values.get(0));
+        assertEquals(-7, values.get(1));
+        assertEquals(4, values.get(2));
+        assertNull(values.get(3));
+        assertTrue((Boolean) values.get(4));
+        assertEquals(LocalDate.of(2024, 3, 5), values.get(5));
+        assertEquals(LocalDate.of(2024, 3, 5), values.get(6));
+        assertNull(values.get(7));
+        assertTrue((Boolean) values.get(8));
+        // Escaped fields are never compared in place
+        assertFalse((Boolean) values.get(9));
+        assertNull(values.get(10));
+    }
+
+    @Test
+    void readsStreamsThatReturnShortReads() throws Exception {
+        byte[] csv = "a,\"b\r\nc\"\r\nd,e\r\n".getBytes(StandardCharsets.UTF_8);
+        InputStream trickle = new ByteArrayInputStream(csv) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+
+        List<List<String>> rows = new ArrayList<>();
+        new CsvReader((byte) ',', 4).read(trickle, row -> rows.add(List.of(row.getValue(0), row.getValue(1))));
+        assertEquals(List.of(List.of("a", "b\r\nc"), List.of("d", "e")), rows);
+    }
+}
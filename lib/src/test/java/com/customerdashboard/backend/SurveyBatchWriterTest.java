@@ -0,0 +1,194 @@
+package com.customerdashboard.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SurveyBatchWriterTest {
+    private static final String SCHEMA = """
+        CREATE TABLE survey_responses (
+            survey_id INT AUTO_INCREMENT PRIMARY KEY,
+            customer_id VARCHAR(10) NOT NULL,
+            survey_date TIMESTAMP NOT NULL,
+            food_quality INT,
+            service_quality INT,
+            hygiene INT,
+            value_for_money INT,
+            overall_satisfaction VARCHAR(50),
+            comments VARCHAR(1000),
+            nps_score INT,
+            row_fingerprint VARCHAR(64) UNIQUE
+        )
+    """;
+
+    private String url;
+    private Connection keepAlive;
+    // Set to make executeBatch fail without update counts, as some drivers do
+    private boolean batchWithoutCounts;
+    private DatabaseManager dbManager;
+    private final List<SurveyResponse> committed = new ArrayList<>();
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        url = "jdbc:h2:mem:batch" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        keepAlive = DriverManager.getConnection(url, "sa", "");
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute(SCHEMA);
+        }
+
+        dbManager = mock(DatabaseManager.class);
+        when(dbManager.getConnection()).thenAnswer(invocation -> connection());
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException {
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, "sa", "");
+        if (!batchWithoutCounts) {
+            return conn;
+        }
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                Object result = invoke(conn, method, args);
+                if (result instanceof PreparedStatement) {
+                    PreparedStatement stmt = (PreparedStatement) result;
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class },
+                        (p, m, a) -> {
+                            if ("executeBatch".equals(m.getName())) {
+                                stmt.clearBatch();
+                                throw new BatchUpdateException("batch failed", (int[]) null);
+                            }
+                            return invoke(stmt, m, a);
+                        });
+                }
+                return result;
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private SurveyBatchWriter writer() {
+        SurveyBatchWriter writer = new SurveyBatchWriter(dbManager, 100, null);
+        writer.addCommitListener(committed::addAll);
+        return writer;
+    }
+
+    // Longer than the customer_id column, so the database rejects the row
+    private static final String TOO_LONG = "CUSTOMER-0000000042";
+
+    private static SurveyResponse survey(String customerId) {
+        SurveyResponse response = new SurveyResponse();
+        response.setCustomerId(customerId);
+        response.setSurveyDate(Timestamp.valueOf("2024-03-01 10:00:00"));
+        response.setFoodQuality(4);
+        response.setServiceQuality(4);
+        response.setHygiene(4);
+        response.setValueForMoney(4);
+        response.setOverallSatisfaction("Satisfied");
+        response.setComments("");
+        response.setNpsScore(8);
+        return response;
+    }
+
+    private static IngestResult[] results(IngestResult result, int size) {
+        IngestResult[] results = new IngestResult[size];
+        Arrays.fill(results, result);
+        return results;
+    }
+
+    private List<String> savedCustomers() throws SQLException {
+        List<String> customers = new ArrayList<>();
+        try (Statement stmt = keepAlive.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT customer_id FROM survey_responses ORDER BY survey_id")) {
+            while (rs.next()) {
+                customers.add(rs.getString(1));
+            }
+        }
+        return customers;
+    }
+
+    private void writeChunkWithRejectedRow() throws SQLException {
+        List<SurveyResponse> chunk = List.of(survey("C1"), survey(TOO_LONG), survey("C3"), survey("C1"));
+        IngestResult result = new IngestResult();
+
+        writer().writeChunk(chunk, new long[] { 2, 3, 4, 5 }, results(result, chunk.size()));
+
+        assertEquals(2, result.getSaved());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getRowNumber());
+        assertEquals(List.of("C1", "C3"), savedCustomers());
+        assertEquals(List.of("C1", "C3"), committed.stream().map(SurveyResponse::getCustomerId).toList());
+    }
+
+    @Test
+    void savesRestOfBatchWhenDriverReportsFailedRows() throws SQLException {
+        writeChunkWithRejectedRow();
+    }
+
+    @Test
+    void fallsBackToRowByRowWithoutUpdateCounts() throws SQLException {
+        batchWithoutCounts = true;
+        writeChunkWithRejectedRow();
+    }
+
+    @Test
+    void countsRowsAlreadySavedAsDuplicates() throws SQLException {
+        writer().writeChunk(List.of(survey("C1")), new long[] { 2 }, results(new IngestResult(), 1));
+        committed.clear();
+
+        batchWithoutCounts = true;
+        IngestResult result = new IngestResult();
+        writer().writeChunk(List.of(survey("C1"), survey("C2")), new long[] { 2, 3 }, results(result, 2));
+
+        assertEquals(1, result.getSaved());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(0, result.getFailed());
+        assertEquals(List.of("C1", "C2"), savedCustomers());
+        assertEquals(List.of("C2"), committed.stream().map(SurveyResponse::getCustomerId).toList());
+    }
+
+    @Test
+    void creditsEachRowToItsOwnSource() throws SQLException {
+        IngestResult first = new IngestResult();
+        IngestResult second = new IngestResult();
+        IngestResult[] results = { first, second, first };
+
+        writer().writeChunk(List.of(survey("A"), survey(TOO_LONG), survey("C")), new long[] { 2, 2, 3 }, results);
+
+        assertEquals(2, first.getSaved());
+        assertEquals(0, first.getFailed());
+        assertEquals(0, second.getSaved());
+        assertEquals(1, second.getFailed());
+    }
+}
@@ -0,0 +1,94 @@
+package com.customerdashboard.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+class SurveyDateParserTest {
+
+    private static LocalDate day(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    @Test
+    void prefersMonthFirstWhenAmbiguous() {
+        SurveyDateParser parser = new SurveyDateParser();
+        parser.addSample("03/04/2024");
+        parser.addSample("01/02/2024");
+        parser.detect();
+
+        assertEquals(LocalDate.of(2024, 3, 4), day(parser.parse("03/04/2024")));
+    }
+
+    @Test
+    void detectsDayFirstFromAnUnambiguousSample() {
+        SurveyDateParser parser = new SurveyDateParser();
+        parser.addSample("03/04/2024");
+        parser.addSample("25/12/2024");
+        parser.detect();
+
+        assertEquals(LocalDate.of(2024, 4, 3), day(parser.parse("03/04/2024")));
+        assertEquals(LocalDate.of(2024, 12, 25), day(parser.parse("25/12/2024")));
+    }
+
+    @Test
+    void detectsOnceSampleWindowIsFull() {
+        SurveyDateParser parser = new SurveyDateParser();
+        for (int i = 1; i < SurveyDateParser.SAMPLE_SIZE; i++) {
+            parser.addSample("5 Jan 2024");
+            assertTrue(parser.isDetecting());
+        }
+        // Blank values are not samples
+        parser.addSample("  ");
+        assertTrue(parser.isDetecting());
+
+        parser.addSample("6 Jan 2024");
+        assertFalse(parser.isDetecting());
+        assertEquals(LocalDate.of(2024, 1, 7), day(parser.parse("7 JAN 2024")));
+    }
+
+    @Test
+    void parseSettlesFormatForShortColumns() {
+        SurveyDateParser parser = new SurveyDateParser();
+        parser.addSample("13.02.2024");
+
+        assertEquals(LocalDate.of(2024, 2, 13), day(parser.parse("13.02.2024")));
+        assertFalse(parser.isDetecting());
+    }
+
+    @Test
+    void readsIsoDatesAndDropsTimeOfDay() {
+        SurveyDateParser parser = new SurveyDateParser();
+        parser.addSample("25/12/2024");
+        parser.detect();
+
+        assertEquals(LocalDate.of(2024, 6, 1), day(parser.parse("2024-06-01")));
+        assertEquals(LocalDate.of(2024, 12, 25), day(parser.parse(" 25/12/2024 14:30 ")));
+    }
+
+    @Test
+    void fallsBackToOtherFormatsForOddValues() {
+        SurveyDateParser parser = new SurveyDateParser();
+        parser.addSample("03/04/2024");
+        parser.detect();
+
+        assertEquals(LocalDate.of(2024, 3, 5), day(parser.parse("March 5, 2024")));
+    }
+
+    @Test
+    void rejectsValuesThatAreNotDates() {
+        SurveyDateParser parser = new SurveyDateParser();
+        parser.detect();
+
+        assertNull(parser.parse("garbage"));
+        assertNull(parser.parse("2/30/2024"));
+        assertNull(parser.parse(null));
+    }
+}
@@ -0,0 +1,52 @@
+package com.customerdashboard.backend;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class SurveyServletCursorTest {
+
+    private static String base64(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTripsDateAndId() {
+        Timestamp date = Timestamp.valueOf("2024-05-06 07:08:09.123456789");
+
+        Object[] key = SurveyServlet.decodeCursor(SurveyServlet.encodeCursor(date, 4711));
+
+        assertArrayEquals(new Object[] { date, 4711 }, key);
+        assertEquals(123456789, ((Timestamp) key[0]).getNanos());
+    }
+
+    @Test
+    void roundTripsDatesBeforeEpoch() {
+        Timestamp date = Timestamp.valueOf("1969-12-31 23:59:59.5");
+
+        assertArrayEquals(new Object[] { date, 1 }, SurveyServlet.decodeCursor(SurveyServlet.encodeCursor(date, 1)));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = SurveyServlet.encodeCursor(Timestamp.valueOf("2024-01-01 00:00:00"), Integer.MAX_VALUE);
+
+        assertEquals(cursor, cursor.replaceAll("[^A-Za-z0-9_-]", ""));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertNull(SurveyServlet.decodeCursor("not base64!"));
+        assertNull(SurveyServlet.decodeCursor(base64("1700000000000:0")));
+        assertNull(SurveyServlet.decodeCursor(base64("1700000000000:0:5:6")));
+        assertNull(SurveyServlet.decodeCursor(base64("yesterday:0:5")));
+        assertNull(SurveyServlet.decodeCursor(base64("1700000000000:0:five")));
+        assertNull(SurveyServlet.decodeCursor(base64("1700000000000:2000000000:5")));
+    }
+}